@@ -1,23 +1,54 @@
 package com.abbup.extension;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.TimeZone;
+import java.util.concurrent.Executors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.abbup.extension.http.HostConcurrencyLimiter;
+
 @SpringBootApplication(scanBasePackages = "com")
 public class DeadlineGuardApplication {
 	
 	public static void main(String[] args) {
 		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+		// Idle keep-alive for the JDK HttpClient pool. The client reads it once, when its pool class
+		// loads, so it has to be set before anything touches HttpClient; -Djdk.httpclient.keepalive.timeout overrides it.
+		if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+			System.setProperty("jdk.httpclient.keepalive.timeout", "120");
+		}
 		SpringApplication.run(DeadlineGuardApplication.class, args);
 	}
 	
+	// Shared transport for Zoho and Cliq calls: the JDK client pools keep-alive connections
+	// and negotiates HTTP/2 where the host offers it, falling back to HTTP/1.1 otherwise.
 	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	public RestTemplate restTemplate(
+			@Value("${deadlineguard.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+			@Value("${deadlineguard.http.read-timeout-ms:15000}") long readTimeoutMs,
+			@Value("${deadlineguard.http.max-per-host:16}") int maxPerHost,
+			@Value("${deadlineguard.http.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+		
+		HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(Duration.ofMillis(connectTimeoutMs))
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+		
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+		
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.getInterceptors().add(new HostConcurrencyLimiter(maxPerHost, acquireTimeoutMs));
+		return restTemplate;
 	}
 	
 }
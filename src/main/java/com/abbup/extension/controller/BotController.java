@@ -1,31 +1,88 @@
 package com.abbup.extension.controller;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
+import com.abbup.extension.service.AlertDispatcher;
+import com.abbup.extension.service.BotCommandExecutor;
 import com.abbup.extension.service.BotService;
+import com.abbup.extension.service.EscalationQueue;
+import com.abbup.extension.service.EventIdempotencyCache;
+import com.abbup.extension.service.ZohoRateLimiter;
+import com.abbup.extension.service.ZohoTokenManager;
 
 @RestController
 public class BotController {
 	
 	@Autowired
-	private RestTemplate restTemplate;
+	private BotService botService;
 	
 	@Autowired
-	private BotService botService;
+	private ZohoTokenManager tokenManager;
+	
+	@Autowired
+	private ZohoRateLimiter rateLimiter;
+	
+	@Autowired
+	private AlertDispatcher alertDispatcher;
+	
+	@Autowired
+	private BotCommandExecutor commandExecutor;
+	
+	@Autowired
+	private EscalationQueue escalationQueue;
+	
+	@Autowired
+	private EventIdempotencyCache eventCache;
+	
+	// Operator endpoints below expose subscriber ids and alert contents, so they need the shared token
+	@Value("${zoho.webhook.token}")
+	private String operatorToken;
 	
 	@GetMapping("/health")
     public String healthCheck() {
         return "✅ DeadlineGuard is Running!";
     }
 	
+	@GetMapping("/metrics")
+    public ResponseEntity<?> metrics(
+    		@RequestHeader(value = "X-Webhook-Token", required = false) String headerToken,
+    		@RequestParam(value = "token", required = false) String queryToken) {
+		if (!SharedToken.isValid(headerToken != null ? headerToken : queryToken, operatorToken)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("invalid token");
+		}
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("token", tokenManager.getStats());
+        metrics.put("zohoBudget", rateLimiter.getStats());
+        metrics.put("deliveries", alertDispatcher.getStats());
+        metrics.put("deliveriesByHost", alertDispatcher.getStatsByHost());
+        metrics.put("commands", commandExecutor.getStats());
+        metrics.put("escalations", escalationQueue.getStats());
+        metrics.put("eventDedup", eventCache.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+	
+	@GetMapping("/deliveries/dead-letters")
+    public ResponseEntity<?> deadLetters(
+    		@RequestHeader(value = "X-Webhook-Token", required = false) String headerToken,
+    		@RequestParam(value = "token", required = false) String queryToken) {
+		if (!SharedToken.isValid(headerToken != null ? headerToken : queryToken, operatorToken)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("invalid token");
+		}
+        return ResponseEntity.ok(alertDispatcher.getDeadLetters());
+    }
+	
     @PostMapping("/api/bot")
     public void handleCliqEvent(@RequestBody Map<String, Object> payload) {
     	String responseUrl = (String) payload.get("response_url");
@@ -35,23 +92,21 @@ public class BotController {
     	
     	if(actionData.get("type").equals("message_handler")) return;
     	
+    	// Cliq retries slow deliveries with the same event; only the first one runs
+    	String fingerprint = EventIdempotencyCache.fingerprint(responseUrl, actionData.get("type"), actionData.get("name"),
+    			payload.get("name"), payload.get("params"));
+    	if (!eventCache.firstSeen(fingerprint)) {
+    		System.out.println("🔁 Duplicate Cliq event ignored.");
+    		return;
+    	}
+    	
     	boolean isWelcome = "welcome_handler".equals(actionData.get("type"));
 
 		if (isWelcome) {
 			System.out.println("👋 Welcome Event Detected!");
 			if (responseUrl != null) {
-			    Map<String, Object> manual = botService.generateWelcomeMessage();
-			    
-			    
-			    try {
-			    	Map<String, Object> finalPayload = new HashMap<>();
-			        finalPayload.put("output", manual);
-			        
-			        restTemplate.postForObject(responseUrl, finalPayload, String.class);
-			        System.out.println("✅ Welcome Message Sent.");
-			    } catch (Exception e) {
-			        System.err.println("❌ Welcome Error: " + e.getMessage());
-			    }
+			    commandExecutor.submit("welcome", responseUrl, botService::generateWelcomeMessage);
+			    System.out.println("✅ Welcome Message queued.");
 			}
 			return;
 		}
@@ -65,7 +120,7 @@ public class BotController {
 	        System.out.println(actionName);
 	        if(actionName.equalsIgnoreCase("createtask") || actionName.equalsIgnoreCase("updatetask") || 
 	        		actionName.equalsIgnoreCase("setup") || actionName.equalsIgnoreCase("StopMonitor") ||
-	        		actionName.equalsIgnoreCase("StartMonitor")) {
+	        		actionName.equalsIgnoreCase("StartMonitor") || actionName.equalsIgnoreCase("search")) {
 	        	Map<?, ?> params = (Map<?, ?>) payload.get("params");
 	        	arguments = (String) params.get("arguments");
 	        	
@@ -76,23 +131,26 @@ public class BotController {
 	        	}
 	        }
 	    	
-	    	Map<String, Object> outputMap = switch(actionName) {
-	    		case "CheckStatus" -> botService.generateHealthReport();
-	    		case "CriticalList" -> botService.generateCriticalTaskList();
-	    		case "TaskList" -> botService.generateAllTaskList();
-	    		case "StartMonitor" -> botService.handleStartMonitor(userId);
-	    		case "StopMonitor" -> botService.handleStopMonitor(userId);
-	    		case "createtask" -> botService.handleCreateTaskCommand(arguments);
-	    		case "updatetask" -> botService.handleUpdateTaskCommand(arguments);
-	    		case "setup" -> botService.handleSetupCommand(arguments, userId);
+	    	// Acknowledge Cliq right away; the command runs on its own virtual thread and replies to response_url.
+	    	// Cliq sends names in mixed case ("CheckStatus", "createtask"), so match them in lower case.
+	    	String command = actionName.toLowerCase(), args = arguments, user = userId;
+	    	if (!commandExecutor.isKnown(command)) {
+	    		System.err.println("⚠️ Ignoring unknown command '" + actionName + "'");
+	    		return;
+	    	}
+	    	commandExecutor.submit(command, responseUrl, () -> switch(command) {
+	    		case "checkstatus" -> botService.generateHealthReport();
+	    		case "criticallist" -> botService.generateCriticalTaskList();
+	    		case "tasklist" -> botService.generateAllTaskList();
+	    		case "startmonitor" -> botService.handleStartMonitor(user);
+	    		case "stopmonitor" -> botService.handleStopMonitor(user);
+	    		case "createtask" -> botService.handleCreateTaskCommand(args);
+	    		case "updatetask" -> botService.handleUpdateTaskCommand(args);
+	    		case "setup" -> botService.handleSetupCommand(args, user);
+	    		case "search" -> botService.handleSearchCommand(args);
 	    		default -> null;
-	    	};
-	        
-	        Map<String, Object> finalPayload = new HashMap<>();
-	        finalPayload.put("output", outputMap);
-	        
-	        restTemplate.postForObject(responseUrl, finalPayload, String.class);
-	        System.out.println("✅ Message sent successfully to response_url.");
+	    	});
+	        System.out.println("✅ Command '" + command + "' accepted.");
 	    }
     }
         
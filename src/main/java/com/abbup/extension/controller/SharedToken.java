@@ -0,0 +1,17 @@
+package com.abbup.extension.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// The shared secret (zoho.webhook.token) that guards the Zoho webhook and the operator endpoints.
+final class SharedToken {
+	
+	private SharedToken() {}
+	
+	static boolean isValid(String supplied, String expected) {
+		if (supplied == null || expected == null || expected.isBlank()) return false;
+		// Constant-time compare so the token can't be guessed byte by byte
+		return MessageDigest.isEqual(supplied.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8));
+	}
+	
+}
@@ -0,0 +1,49 @@
+package com.abbup.extension.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.abbup.extension.service.WebhookIngestService;
+
+@RestController
+public class ZohoWebhookController {
+	
+	@Autowired
+	private WebhookIngestService webhookIngestService;
+	
+	@Value("${zoho.webhook.token}")
+	private String webhookToken;
+	
+	// Zoho Projects task webhook. The shared token may arrive as a header or a query parameter.
+	@PostMapping("/api/zoho/webhook")
+	public ResponseEntity<String> handleTaskWebhook(
+			@RequestHeader(value = "X-Webhook-Token", required = false) String headerToken,
+			@RequestParam(value = "token", required = false) String queryToken,
+			@RequestBody Map<String, Object> payload) {
+		
+		String supplied = (headerToken != null) ? headerToken : queryToken;
+		if (!isValidToken(supplied)) {
+			System.err.println("❌ Webhook rejected: bad token");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("invalid token");
+		}
+		
+		if (!webhookIngestService.accept(payload)) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("missing task id");
+		}
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body("accepted");
+	}
+	
+	private boolean isValidToken(String supplied) {
+		return SharedToken.isValid(supplied, webhookToken);
+	}
+	
+}
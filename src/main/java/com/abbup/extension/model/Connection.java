@@ -3,11 +3,18 @@ package com.abbup.extension.model;
 public class Connection {
 	private String userId;
 	private String webhookUrl;
+	// Project key (portal/project) this subscriber follows; null means every monitored project
+	private String projectKey;
 	
 	public Connection(String userId, String webhookUrl) {
+		this(userId, webhookUrl, null);
+	}
+	
+	public Connection(String userId, String webhookUrl, String projectKey) {
 		super();
 		this.userId = userId;
 		this.webhookUrl = webhookUrl;
+		this.projectKey = projectKey;
 	}
 
 	public String getUserId() { return userId; }
@@ -15,5 +22,12 @@ public class Connection {
 
 	public String getWebhookUrl() { return webhookUrl; }
 	public void setWebhookUrl(String webhookUrl) { this.webhookUrl = webhookUrl; }
+
+	public String getProjectKey() { return projectKey; }
+	public void setProjectKey(String projectKey) { this.projectKey = projectKey; }
+	
+	public boolean follows(MonitoredProject project) {
+		return projectKey == null || projectKey.equals(project.getKey());
+	}
 	
 }
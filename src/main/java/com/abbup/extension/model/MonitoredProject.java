@@ -0,0 +1,32 @@
+package com.abbup.extension.model;
+
+public class MonitoredProject {
+	private String portalId;
+	private String projectId;
+	private String name;
+	private long scanIntervalMinutes;
+	
+	public MonitoredProject(String portalId, String projectId, String name, long scanIntervalMinutes) {
+		super();
+		this.portalId = portalId;
+		this.projectId = projectId;
+		this.name = name;
+		this.scanIntervalMinutes = scanIntervalMinutes;
+	}
+
+	// Unique across portals; used to scope caches, alert memory and subscriptions
+	public String getKey() { return portalId + "/" + projectId; }
+
+	public String getPortalId() { return portalId; }
+	public void setPortalId(String portalId) { this.portalId = portalId; }
+
+	public String getProjectId() { return projectId; }
+	public void setProjectId(String projectId) { this.projectId = projectId; }
+
+	public String getName() { return name; }
+	public void setName(String name) { this.name = name; }
+
+	public long getScanIntervalMinutes() { return scanIntervalMinutes; }
+	public void setScanIntervalMinutes(long scanIntervalMinutes) { this.scanIntervalMinutes = scanIntervalMinutes; }
+	
+}
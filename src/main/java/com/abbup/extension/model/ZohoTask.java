@@ -0,0 +1,32 @@
+package com.abbup.extension.model;
+
+import java.time.LocalDate;
+
+// Compact, immutable view of a Zoho task. Status, priority and owner are interned (they repeat
+// across thousands of tasks) and the due date is held as an epoch day.
+public record ZohoTask(long id, String name, String status, String priority, int dueEpochDay, String owner, long lastModified) {
+
+	public static final int NO_DUE_DATE = Integer.MIN_VALUE;
+	public static final String UNASSIGNED = "Unassigned";
+
+	public boolean isOpen() {
+		return "Open".equalsIgnoreCase(status);
+	}
+
+	public boolean isHighPriority() {
+		return "High".equalsIgnoreCase(priority);
+	}
+
+	public boolean hasDueDate() {
+		return dueEpochDay != NO_DUE_DATE;
+	}
+
+	public LocalDate dueDate() {
+		return hasDueDate() ? LocalDate.ofEpochDay(dueEpochDay) : null;
+	}
+
+	public String idString() {
+		return Long.toString(id);
+	}
+
+}
@@ -0,0 +1,410 @@
+package com.abbup.extension.service;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import com.abbup.extension.model.Connection;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+// Outbound delivery pipeline. Every subscriber gets its own bounded queue drained by a virtual
+// thread, so callers only enqueue and a slow or broken channel never holds up a scan.
+// Failed posts are retried with backoff; messages that keep failing land in the dead-letter store.
+// Replies to slash commands go through their own executor and concurrency limit, so a burst of
+// commands never waits behind alert traffic (or the other way round).
+@Service
+public class AlertDispatcher {
+
+    public enum OverflowPolicy { DROP_OLDEST, COALESCE }
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MessageComponents messageComponents;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private SubscriberRegistry subscriberRegistry;
+
+    @Value("${deadlineguard.delivery.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${deadlineguard.delivery.overflow-policy:COALESCE}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${deadlineguard.delivery.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${deadlineguard.delivery.backoff-base-ms:500}")
+    private long backoffBaseMillis;
+
+    @Value("${deadlineguard.delivery.backoff-max-ms:60000}")
+    private long backoffMaxMillis;
+
+    @Value("${deadlineguard.delivery.dead-letter-capacity:200}")
+    private int deadLetterCapacity;
+
+    private final Semaphore concurrencyLimit;
+    private final Semaphore replyLimit;
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService replyExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, SubscriberQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, DeliveryStats> stats = new ConcurrentHashMap<>();
+    private final DeliveryStats replyStats = new DeliveryStats();
+    private final ArrayDeque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final HttpHeaders jsonHeaders = new HttpHeaders();
+
+    public AlertDispatcher(@Value("${deadlineguard.delivery.max-concurrent:32}") int maxConcurrent,
+                           @Value("${deadlineguard.delivery.max-concurrent-replies:8}") int maxConcurrentReplies) {
+        this.concurrencyLimit = new Semaphore(Math.max(1, maxConcurrent));
+        this.replyLimit = new Semaphore(Math.max(1, maxConcurrentReplies));
+        this.jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    private static class DeliveryStats {
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong retried = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong deadLettered = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+        volatile long lastMillis = 0;
+    }
+
+    // 'body' is the payload already encoded as JSON; broadcasts share one array across all queues.
+    // 'digest' marks messages built by coalescing, so a later overflow can flatten them.
+    private static class Outbound {
+        final Object payload;
+        final byte[] body;
+        final boolean digest;
+        final long queuedAt = System.currentTimeMillis();
+        int attempts = 0;
+
+        Outbound(Object payload, byte[] body) {
+            this(payload, body, false);
+        }
+
+        Outbound(Object payload, byte[] body, boolean digest) {
+            this.payload = payload;
+            this.body = body;
+            this.digest = digest;
+        }
+    }
+
+    // Why a post failed; permanent failures (4xx other than 429) are not retried
+    private record Failure(String reason, boolean permanent) {}
+
+    // Guarded by its own monitor; 'draining' is true while a drainer thread owns the queue.
+    // 'target' is re-read before every attempt, and 'closed' is set once the subscriber is gone.
+    private static class SubscriberQueue {
+        final ArrayDeque<Outbound> pending = new ArrayDeque<>();
+        volatile Connection target;
+        volatile boolean closed = false;
+        boolean draining = false;
+
+        SubscriberQueue(Connection target) {
+            this.target = target;
+        }
+    }
+
+    // Only the webhook host is kept: Cliq webhook URLs carry the zapikey credential
+    public record DeadLetter(String userId, String host, Object payload, int attempts, String lastError, long queuedAt, long failedAt) {}
+
+    public void send(Connection target, Object payload) {
+        broadcast(List.of(target), payload);
+    }
+
+    // Encodes the payload once and returns as soon as it is queued for every target
+    public void broadcast(List<Connection> targets, Object payload) {
+        if (targets.isEmpty()) return;
+        byte[] body = encode(payload);
+        if (body == null) return;
+        for (Connection target : targets) {
+            enqueue(target, payload, body);
+        }
+    }
+
+    // One-shot replies (Cliq response_url) skip the per-subscriber queues but keep retries and dead-lettering
+    public void reply(String responseUrl, Object payload) {
+        byte[] body = encode(payload);
+        if (body == null) return;
+        Connection target = new Connection("response_url", responseUrl);
+        replyExecutor.execute(() -> deliverWithRetry(() -> target, new Outbound(payload, body), replyLimit, replyStats));
+    }
+
+    // Points queued and retrying alerts at the subscriber's new webhook after a repeated /setup
+    public void retarget(Connection target) {
+        SubscriberQueue queue = queues.get(target.getUserId());
+        if (queue != null) queue.target = target;
+    }
+
+    // Drops everything still queued for a subscriber that unsubscribed, along with its stats
+    public void forget(String userId) {
+        SubscriberQueue queue = queues.remove(userId);
+        if (queue != null) {
+            synchronized (queue) {
+                queue.closed = true;
+                queue.pending.clear();
+            }
+        }
+        stats.remove(userId);
+    }
+
+    private byte[] encode(Object payload) {
+        try {
+            return jsonMapper.writeValueAsBytes(payload);
+        } catch (JacksonException e) {
+            System.err.println("❌ Could not encode alert payload: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void enqueue(Connection target, Object payload, byte[] body) {
+        SubscriberQueue queue = queues.computeIfAbsent(target.getUserId(), id -> new SubscriberQueue(target));
+        boolean startDrainer;
+        synchronized (queue) {
+            // Lost a race with forget(); the subscriber is gone
+            if (queue.closed) return;
+            queue.target = target;
+            if (queue.pending.size() >= queueCapacity) applyOverflow(queue, statsFor(target.getUserId()));
+            queue.pending.addLast(new Outbound(payload, body));
+            startDrainer = !queue.draining;
+            queue.draining = true;
+        }
+        if (startDrainer) deliveryExecutor.execute(() -> drain(queue));
+    }
+
+    private void applyOverflow(SubscriberQueue queue, DeliveryStats targetStats) {
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+            queue.pending.pollFirst();
+            targetStats.dropped.incrementAndGet();
+            System.err.println("🗑️ Queue full for " + queue.target.getUserId() + ", dropped oldest alert");
+            return;
+        }
+        int count = queue.pending.size();
+        Map<String, Object> digest = createDigest(queue.pending);
+        byte[] body = encode(digest);
+        queue.pending.clear();
+        if (body != null) queue.pending.addLast(new Outbound(digest, body, true));
+        targetStats.coalesced.addAndGet(count);
+        System.err.println("📦 Queue full for " + queue.target.getUserId() + ", coalesced " + count + " alerts into a digest");
+    }
+
+    // Folds queued alert cards into one message listing their text
+    private Map<String, Object> createDigest(Iterable<Outbound> queued) {
+        StringBuilder msg = new StringBuilder();
+        int alerts = 0;
+        for (Outbound outbound : queued) {
+            if (outbound.payload instanceof Map<?, ?> map && map.get("text") instanceof String text) {
+                String firstLine = text.lines().findFirst().orElse("");
+                // Digests can themselves be coalesced again; keep their lines flat
+                if (outbound.digest) {
+                    text.lines().skip(1).forEach(line -> msg.append(line).append("\n"));
+                    alerts += (int) text.lines().skip(1).count();
+                } else {
+                    msg.append("• ").append(firstLine).append("\n");
+                    alerts++;
+                }
+            }
+        }
+        Map<String, Object> digest = new HashMap<>();
+        digest.put("text", messageComponents.createText("📦 **" + alerts + " alerts** queued while this channel was unavailable:\n" + msg.toString().stripTrailing()));
+        digest.put("card", messageComponents.createCard(MessageComponents.DIGEST_CARD));
+        return digest;
+    }
+
+    private void drain(SubscriberQueue queue) {
+        while (true) {
+            Outbound next;
+            DeliveryStats targetStats;
+            synchronized (queue) {
+                next = queue.pending.pollFirst();
+                if (next == null) {
+                    queue.draining = false;
+                    return;
+                }
+                targetStats = statsFor(queue.target.getUserId());
+            }
+            deliverWithRetry(() -> queue.closed ? null : queue.target, next, concurrencyLimit, targetStats);
+        }
+    }
+
+    // 'currentTarget' is asked again before every attempt; null means the recipient is gone
+    private void deliverWithRetry(Supplier<Connection> currentTarget, Outbound outbound, Semaphore limit, DeliveryStats targetStats) {
+        while (true) {
+            Connection target = currentTarget.get();
+            if (target == null) return;
+            outbound.attempts++;
+            Failure failure = attempt(target, outbound.body, limit, targetStats);
+            if (failure == null) return;
+
+            targetStats.failed.incrementAndGet();
+            if (failure.permanent() || outbound.attempts >= maxAttempts) {
+                deadLetter(target, outbound, failure.reason(), targetStats);
+                return;
+            }
+
+            targetStats.retried.incrementAndGet();
+            try {
+                Thread.sleep(backoffMillis(outbound.attempts));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                deadLetter(target, outbound, "interrupted", targetStats);
+                return;
+            }
+        }
+    }
+
+    // Exponential backoff with full jitter so retries from many queues don't line up
+    private long backoffMillis(int attempts) {
+        long ceiling = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempts - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    // Returns null on success, otherwise why it failed
+    private Failure attempt(Connection target, byte[] body, Semaphore limit, DeliveryStats targetStats) {
+        try {
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Failure("interrupted", false);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            // byte[] bodies are written as-is, so nothing is re-serialized per recipient
+            restTemplate.postForObject(target.getWebhookUrl(), new HttpEntity<>(body, jsonHeaders), String.class);
+            targetStats.delivered.incrementAndGet();
+            System.out.println("✅ Alert sent to: " + target.getUserId());
+            return null;
+        } catch (HttpStatusCodeException e) {
+            System.err.println("❌ Failed to send to " + target.getUserId() + ": " + e.getMessage());
+            HttpStatusCode status = e.getStatusCode();
+            // A bad URL or payload won't fix itself; rate limiting will
+            boolean permanent = status.is4xxClientError() && status.value() != 429;
+            return new Failure(status.value() + " " + e.getMessage(), permanent);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to send to " + target.getUserId() + ": " + e.getMessage());
+            return new Failure(String.valueOf(e.getMessage()), false);
+        } finally {
+            long elapsed = System.currentTimeMillis() - start;
+            targetStats.totalMillis.addAndGet(elapsed);
+            targetStats.lastMillis = elapsed;
+            limit.release();
+        }
+    }
+
+    private void deadLetter(Connection target, Outbound outbound, String error, DeliveryStats targetStats) {
+        targetStats.deadLettered.incrementAndGet();
+        System.err.println("☠️ Giving up on alert for " + target.getUserId() + " after " + outbound.attempts + " attempts: " + error);
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= deadLetterCapacity) deadLetters.pollFirst();
+            deadLetters.addLast(new DeadLetter(target.getUserId(), hostOf(target.getWebhookUrl()), outbound.payload,
+                    outbound.attempts, error, outbound.queuedAt, System.currentTimeMillis()));
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "";
+        }
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    private DeliveryStats statsFor(String userId) {
+        return stats.computeIfAbsent(userId, id -> new DeliveryStats());
+    }
+
+    // Per subscriber, plus one "replies" entry for command responses
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        stats.forEach((userId, s) -> {
+            SubscriberQueue queue = queues.get(userId);
+            int depth;
+            if (queue == null) depth = 0;
+            else synchronized (queue) { depth = queue.pending.size(); }
+            result.put(userId, describe(s, depth));
+        });
+        result.put("replies", describe(replyStats, 0));
+        return result;
+    }
+
+    // Subscriber stats summed per webhook host, so one failing Cliq data centre stands out
+    public Map<String, Object> getStatsByHost() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String host : subscriberRegistry.hosts()) {
+            DeliveryStats total = new DeliveryStats();
+            int depth = 0;
+            List<Connection> subscribers = subscriberRegistry.findByHost(host);
+            for (Connection subscriber : subscribers) {
+                DeliveryStats s = stats.get(subscriber.getUserId());
+                if (s != null) {
+                    total.delivered.addAndGet(s.delivered.get());
+                    total.failed.addAndGet(s.failed.get());
+                    total.retried.addAndGet(s.retried.get());
+                    total.dropped.addAndGet(s.dropped.get());
+                    total.coalesced.addAndGet(s.coalesced.get());
+                    total.deadLettered.addAndGet(s.deadLettered.get());
+                    total.totalMillis.addAndGet(s.totalMillis.get());
+                    total.lastMillis = Math.max(total.lastMillis, s.lastMillis);
+                }
+                SubscriberQueue queue = queues.get(subscriber.getUserId());
+                if (queue != null) synchronized (queue) { depth += queue.pending.size(); }
+            }
+            Map<String, Object> entry = describe(total, depth);
+            entry.put("subscribers", subscribers.size());
+            result.put(host.isEmpty() ? "unknown" : host, entry);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> describe(DeliveryStats s, int depth) {
+        long attempts = s.delivered.get() + s.failed.get();
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("queued", depth);
+        entry.put("delivered", s.delivered.get());
+        entry.put("failed", s.failed.get());
+        entry.put("retried", s.retried.get());
+        entry.put("dropped", s.dropped.get());
+        entry.put("coalesced", s.coalesced.get());
+        entry.put("deadLettered", s.deadLettered.get());
+        entry.put("lastMillis", s.lastMillis);
+        entry.put("avgMillis", attempts == 0 ? 0 : s.totalMillis.get() / attempts);
+        return entry;
+    }
+}
@@ -0,0 +1,245 @@
+package com.abbup.extension.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Alert dedup memory (last alert day) and schedule-change memory (last seen due date) for one
+// project, backed by an append-only log so a restart neither re-sends today's alerts nor loses
+// the due dates it needs to spot schedule changes.
+//
+// Record layout, 13 bytes: [op:1][taskId:8][epochDay:4]. Callers update memory immediately;
+// records are appended by a background writer thread, and the log is periodically rewritten
+// down to one record per live entry. In memory, state lives in a primitive AlertStateTable keyed by
+// task id with epoch-day ints, safe to use from several threads; claim/exchange are atomic per task.
+public class AlertMemoryStore {
+
+    private static final byte OP_ALERTED = 1;
+    private static final byte OP_DUE_DATE = 2;
+    private static final byte OP_FORGET = 3;
+    private static final long POISON = Long.MIN_VALUE;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    public static final int NO_DAY = AlertStateTable.NO_DAY;
+
+    private final AlertStateTable state = new AlertStateTable();
+
+    private final Path logFile;
+    private final int compactionThreshold;
+    private final LinkedBlockingQueue<long[]> pending = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private DataOutputStream out;
+    private long recordsInLog = 0;
+
+    public AlertMemoryStore(Path logFile, int compactionThreshold) {
+        this.logFile = logFile;
+        this.compactionThreshold = compactionThreshold;
+
+        long start = System.currentTimeMillis();
+        replay();
+        System.out.println("💾 Loaded alert memory " + logFile.getFileName() + ": " + state.size() + " tasks in "
+                + (System.currentTimeMillis() - start) + "ms");
+
+        this.writerThread = Thread.ofPlatform().daemon().name("alert-memory-writer-" + logFile.getFileName()).start(this::writeLoop);
+    }
+
+    // --- MEMORY API ---
+
+    // Days are epoch days; NO_DAY means nothing recorded
+
+    public int getLastAlertDay(long taskId) {
+        return state.getAlertDay(taskId);
+    }
+
+    // Records today's alert unless one was already recorded; only the caller that gets true sends it
+    public boolean claimAlert(long taskId, int day) {
+        int previous = state.putAlertDay(taskId, day);
+        if (previous == day) return false;
+        append(OP_ALERTED, taskId, day);
+        return true;
+    }
+
+    public int getLastDueDay(long taskId) {
+        return state.getDueDay(taskId);
+    }
+
+    // Stores the task's current due day and returns the one seen before (NO_DAY the first time)
+    public int exchangeDueDay(long taskId, int dueDay) {
+        int previous = state.putDueDay(taskId, dueDay);
+        // Re-recording an unchanged date is the common case on every scan; keep it off the log
+        if (previous != dueDay) append(OP_DUE_DATE, taskId, dueDay);
+        return previous;
+    }
+
+    public void forget(long taskId) {
+        if (state.remove(taskId)) append(OP_FORGET, taskId, 0);
+    }
+
+    public void close() {
+        pending.add(new long[] { POISON, 0, 0 });
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- LOG ---
+
+    private void append(byte op, long taskId, int epochDay) {
+        pending.add(new long[] { op, taskId, epochDay });
+    }
+
+    private void replay() {
+        if (!Files.exists(logFile)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile), 1 << 16))) {
+            while (true) {
+                byte op = in.readByte();
+                long id = in.readLong();
+                int day = in.readInt();
+                apply(op, id, day);
+                recordsInLog++;
+            }
+        } catch (EOFException endOfLog) {
+            // Normal end, or a record torn by a crash mid-write; everything before it is intact
+        } catch (IOException e) {
+            System.err.println("❌ Alert memory replay failed: " + e.getMessage());
+        }
+    }
+
+    private void apply(byte op, long taskId, int day) {
+        switch (op) {
+            case OP_ALERTED -> state.putAlertDay(taskId, day);
+            case OP_DUE_DATE -> state.putDueDay(taskId, day);
+            case OP_FORGET -> state.remove(taskId);
+            default -> { }
+        }
+    }
+
+    // A failed write never ends the loop: the stream is reopened and, since memory already holds
+    // every change, the log is rewritten from it once the file is usable again. Records queued
+    // while the log is broken are dropped for the same reason, so 'pending' can't pile up.
+    private void writeLoop() {
+        List<long[]> batch = new ArrayList<>();
+        boolean stop = false;
+        boolean needsRewrite = false;
+        while (!stop) {
+            try {
+                long[] first = pending.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    pending.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            try {
+                if (out == null) {
+                    if (logFile.getParent() != null) Files.createDirectories(logFile.getParent());
+                    out = openAppend();
+                }
+                if (needsRewrite) {
+                    compact();
+                    needsRewrite = false;
+                    System.out.println("💾 Alert memory log " + logFile.getFileName() + " recovered");
+                }
+                for (long[] record : batch) {
+                    if (record[0] == POISON) {
+                        stop = true;
+                        continue;
+                    }
+                    writeRecord(out, (byte) record[0], record[1], (int) record[2]);
+                    recordsInLog++;
+                }
+                out.flush();
+                if (recordsInLog > compactionThreshold && recordsInLog > 2L * liveRecords()) compact();
+            } catch (IOException e) {
+                System.err.println("❌ Alert memory log write failed (" + logFile.getFileName() + "), will rewrite from memory: " + e.getMessage());
+                closeQuietly();
+                needsRewrite = true;
+                for (long[] record : batch) {
+                    if (record[0] == POISON) stop = true;
+                }
+                if (!stop) {
+                    try {
+                        Thread.sleep(RETRY_DELAY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        stop = true;
+                    }
+                }
+            }
+            batch.clear();
+        }
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            if (out != null) out.close();
+        } catch (IOException ignored) { }
+        out = null;
+    }
+
+    // Upper bound: each tracked task compacts to at most two records
+    private long liveRecords() {
+        return 2L * state.size();
+    }
+
+    // Rewrites the log as one record per live entry, then swaps it in atomically
+    private void compact() throws IOException {
+        Path tmp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        long written = 0;
+        try (DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            long[] count = { 0 };
+            IOException[] failure = { null };
+            state.forEach((taskId, alertDay, dueDay) -> {
+                if (failure[0] != null) return;
+                try {
+                    if (alertDay != NO_DAY) {
+                        writeRecord(snapshot, OP_ALERTED, taskId, alertDay);
+                        count[0]++;
+                    }
+                    if (dueDay != NO_DAY) {
+                        writeRecord(snapshot, OP_DUE_DATE, taskId, dueDay);
+                        count[0]++;
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+            written = count[0];
+        }
+        if (out != null) out.close();
+        out = null;
+        Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        out = openAppend();
+        System.out.println("🧹 Compacted " + logFile.getFileName() + ": " + recordsInLog + " -> " + written + " records");
+        recordsInLog = written;
+    }
+
+    private static void writeRecord(DataOutputStream stream, byte op, long taskId, int day) throws IOException {
+        stream.writeByte(op);
+        stream.writeLong(taskId);
+        stream.writeInt(day);
+    }
+
+    private DataOutputStream openAppend() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16));
+    }
+}
@@ -1,273 +1,505 @@
 package com.abbup.extension.service;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import com.abbup.extension.model.Button;
 import com.abbup.extension.model.Card;
 import com.abbup.extension.model.Connection;
+import com.abbup.extension.model.MonitoredProject;
+import com.abbup.extension.model.ZohoTask;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class AlertScheduler {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private AlertDispatcher alertDispatcher;
     @Autowired
     private MessageComponents messageComponents;
     @Autowired
     private ZohoApiService zohoApiService;
+    @Autowired
+    private TaskSnapshotCache taskSnapshotCache;
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+    
+    @Autowired
+    private ProjectRegistry projectRegistry;
+    @Autowired
+    private SlaPolicy slaPolicy;
+    @Autowired
+    private EscalationQueue escalationQueue;
+    @Autowired
+    private SubscriberRegistry subscriberRegistry;
     
-    private ScheduledFuture<?> scheduledTask;
     private TaskScheduler taskScheduler;
+    private volatile boolean running = false;
+
+    // Alert memory, schedules and scan bookkeeping are kept per monitored project
+    private final Map<String, ProjectMonitor> monitors = new ConcurrentHashMap<>();
+    private static final int LOCK_STRIPES = 64;
+
+    private static class ProjectMonitor {
+        final MonitoredProject project;
+        final AlertMemoryStore memory;
+        final DeadlineIndex deadlineIndex = new DeadlineIndex();
+        // Broadcast checks of the same task (scan, webhook, day boundary) serialize on its stripe;
+        // different tasks and on-demand /setup scans run in parallel
+        final Object[] taskLocks = new Object[LOCK_STRIPES];
+        // One broadcast pass at a time per project; guards the pass bookkeeping below
+        final Object passLock = new Object();
+        ScheduledFuture<?> scheduledTask;
+        ScheduledFuture<?> boundaryTimer;
+        // Store version the broadcast checks have caught up to; -1 until the first full pass
+        long evaluatedVersion = -1;
+        // Day whose SLA bands have been evaluated
+        LocalDate bandDay = null;
+        volatile long lastWebhookTime = 0;
+        volatile long lastFullScanTime = 0;
+        // Digest mode: broadcast alerts wait here until the window closes (compound ops lock the list)
+        final List<Map<String, String>> digestRows = Collections.synchronizedList(new ArrayList<>());
+        ScheduledFuture<?> digestFlush;
+
+        ProjectMonitor(MonitoredProject project, AlertMemoryStore memory) {
+            this.project = project;
+            this.memory = memory;
+            for (int i = 0; i < LOCK_STRIPES; i++) taskLocks[i] = new Object();
+        }
 
-    private Map<String, LocalDate> dailyAlertMemory = new HashMap<>();
-    private Map<String, String> dateChangeMemory = new HashMap<>();
+        Object lockFor(long taskId) {
+            long h = taskId * 0x9E3779B97F4A7C15L;
+            return taskLocks[(int) (h >>> 58) & (LOCK_STRIPES - 1)];
+        }
+    }
 
-    public AlertScheduler() {
+    // Alert memory survives restarts in per-project logs under this directory
+    @Value("${deadlineguard.state.dir:./data}")
+    private String stateDir;
+    @Value("${deadlineguard.state.compaction-threshold:50000}")
+    private int compactionThreshold;
+
+    // With webhooks flowing, the periodic tick only does a full scan this often
+    @Value("${deadlineguard.poll.fallback-minutes:30}")
+    private long fallbackMinutes;
+
+    // Digest mode folds a pass's alerts into one table message per subscriber
+    @Value("${deadlineguard.digest.enabled:false}")
+    private boolean digestEnabled;
+    @Value("${deadlineguard.digest.window-seconds:0}")
+    private long digestWindowSeconds;
+    @Value("${deadlineguard.digest.max-rows:25}")
+    private int digestMaxRows;
+
+    private static final List<String> DIGEST_HEADERS = List.of("Task", "Alert", "Details", "Owner");
+
+    // Alert cards never change, so they are defined once instead of per alert
+    private static final String ALERT_ICON = "https://cdn-icons-png.flaticon.com/512/595/595067.png";
+    private static final String SCHEDULE_ICON = "https://cdn-icons-png.flaticon.com/512/2693/2693554.png";
+    private static final Card SLA_CARD = new Card("CRITICAL ALERT", ALERT_ICON, "modern-inline");
+    private static final Card PREPONED_CARD = new Card("SCHEDULE UPDATE", SCHEDULE_ICON, "prompt");
+    private static final Card POSTPONED_CARD = new Card("SCHEDULE UPDATE", SCHEDULE_ICON, "modern-inline");
+
+    public AlertScheduler(@Value("${deadlineguard.monitor.max-concurrent-scans:4}") int maxConcurrentScans) {
+        // Pool size bounds how many project scans run at once
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(1);
+        scheduler.setPoolSize(Math.max(1, maxConcurrentScans));
+        scheduler.setThreadNamePrefix("alert-scan-");
         scheduler.initialize();
         this.taskScheduler = scheduler;
     }
 
+    private ProjectMonitor monitorFor(MonitoredProject project) {
+        return monitors.computeIfAbsent(project.getKey(), key -> {
+            String fileName = "alert-memory-" + project.getPortalId() + "-" + project.getProjectId() + ".log";
+            return new ProjectMonitor(project, new AlertMemoryStore(Path.of(stateDir, fileName), compactionThreshold));
+        });
+    }
+
+    // Loads each project's memory at startup rather than on its first scan, and resumes
+    // monitoring when subscribers survived the restart
+    @PostConstruct
+    public void loadMemory() {
+        for (MonitoredProject project : projectRegistry.getAll()) monitorFor(project);
+        if (!subscriberRegistry.isEmpty()) {
+            System.out.println("♻️ Restored " + subscriberRegistry.getAll().size() + " subscriber(s), resuming monitoring");
+            startMonitoring();
+        }
+    }
+
+    @PreDestroy
+    public void flushMemory() {
+        for (ProjectMonitor monitor : monitors.values()) monitor.memory.close();
+    }
+
     // --- SCHEDULER CONTROL ---
 
-    public boolean startMonitoring() {
-        if (scheduledTask != null && !scheduledTask.isCancelled()) {
+    public synchronized boolean startMonitoring() {
+        if (running) {
             System.out.println("⚠️ Monitor is already running.");
             return false;
         }
-        System.out.println("🟢 STARTING ENGINE: Scheduling task for every 5 minutes...");
         
-        Instant startTime = Instant.now().plusMillis(300000); // 5 minutes from now
-        this.scheduledTask = taskScheduler.scheduleAtFixedRate(
-            () -> this.monitorTasks(null),
-            startTime,
-            Duration.ofMillis(300000) 
-        );
+        for (MonitoredProject project : projectRegistry.getAll()) {
+            long intervalMillis = project.getScanIntervalMinutes() * 60000L;
+            System.out.println("🟢 STARTING ENGINE: Scanning '" + project.getName() + "' every " + project.getScanIntervalMinutes() + " minutes...");
+            
+            ProjectMonitor monitor = monitorFor(project);
+            Instant startTime = Instant.now().plusMillis(intervalMillis);
+            monitor.scheduledTask = taskScheduler.scheduleAtFixedRate(
+                () -> rateLimiter.runInBackground(() -> scheduledScan(monitor)),
+                startTime,
+                Duration.ofMillis(intervalMillis)
+            );
+            scheduleDayBoundary(monitor);
+        }
+        running = true;
         return true;
     }
 
-    public void stopMonitoring() {
-        if (scheduledTask != null) {
-            scheduledTask.cancel(false);
-            System.out.println("🔴 ENGINE STOPPED.");
+    public synchronized void stopMonitoring() {
+        if (!running) return;
+        for (ProjectMonitor monitor : monitors.values()) {
+            if (monitor.scheduledTask != null) monitor.scheduledTask.cancel(false);
+            if (monitor.boundaryTimer != null) monitor.boundaryTimer.cancel(false);
+            flushDigest(monitor);
         }
+        running = false;
+        System.out.println("🔴 ENGINE STOPPED.");
     }
     
     public boolean isRunning() {
-        return (scheduledTask != null && !scheduledTask.isCancelled());
+        return running;
     }
 
     // --- CORE LOGIC ---
 
+    // Polling is the fallback path once webhooks are live: skip the tick unless webhooks have
+    // gone quiet or the last scan is older than the fallback window. Day rollover has its own timer.
+    private void scheduledScan(ProjectMonitor monitor) {
+        long now = System.currentTimeMillis();
+        long window = fallbackMinutes * 60000L;
+        boolean webhooksLive = now - monitor.lastWebhookTime < window;
+        boolean recentFullScan = now - monitor.lastFullScanTime < window;
+        if (webhooksLive && recentFullScan) return;
+        scanProject(monitor.project, null);
+    }
+
+    // SLA bands only move at midnight, so each project gets a one-shot timer for the next one
+    private void scheduleDayBoundary(ProjectMonitor monitor) {
+        Instant nextMidnight = LocalDate.now().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().plusSeconds(1);
+        monitor.boundaryTimer = taskScheduler.schedule(
+            () -> rateLimiter.runInBackground(() -> onDayBoundary(monitor)),
+            nextMidnight
+        );
+    }
+
+    private void onDayBoundary(ProjectMonitor monitor) {
+        System.out.println("🌅 Day boundary: re-checking SLA bands for '" + monitor.project.getName() + "'");
+        synchronized (monitor.passLock) {
+            evaluateBands(monitor, LocalDate.now());
+        }
+        armDigest(monitor);
+        if (running) scheduleDayBoundary(monitor);
+    }
+
+    // Re-checks only tasks within the widest SLA threshold; everything later can't alert yet
+    private void evaluateBands(ProjectMonitor monitor, LocalDate today) {
+        if (monitor.evaluatedVersion < 0) return;
+        List<Long> inBand = monitor.deadlineIndex.dueOnOrBefore(today.toEpochDay() + slaPolicy.maxWithinDays());
+        for (Long taskId : inBand) {
+            ZohoTask task = zohoApiService.findStoredTask(monitor.project, taskId);
+            if (task != null) evaluateTask(monitor, task, null, today, broadcastDigest(monitor));
+        }
+        monitor.bandDay = today;
+    }
+
      //If NULL, sends to ALL users (Scheduled Broadcast).
     public void monitorTasks(Connection specificUser) {
-        System.out.println("🔍 Scanning 'Helios Core'...");
-        List<Map<String, Object>> tasks = zohoApiService.getTasks();
-        
-        if (tasks == null || tasks.isEmpty()) return;
+        for (MonitoredProject project : projectRegistry.getAll()) {
+            if (specificUser == null || specificUser.follows(project)) {
+                scanProject(project, specificUser);
+            }
+        }
+    }
 
+    public void scanProject(MonitoredProject project, Connection specificUser) {
+        System.out.println("🔍 Scanning '" + project.getName() + "'...");
         LocalDate today = LocalDate.now();
+        ProjectMonitor monitor = monitorFor(project);
 
-        for (Map<String, Object> task : tasks) {
-            try {
-                String taskId = String.valueOf(task.get("id"));
-                String taskName = (String) task.get("name");
-
-                // CLEANUP (Only when running global broadcast)
-                Map<String, Object> statusObj = (Map<String, Object>) task.get("status");
-                if (!"Open".equalsIgnoreCase((String) statusObj.get("name"))) {
-                    if (specificUser == null) {
-                        dailyAlertMemory.remove(taskId);
-                        dateChangeMemory.remove(taskId);
-                    }
-                    continue; 
-                }
+        // On-demand scans read the shared snapshot from memory and check every task for that user
+        if (specificUser != null) {
+            List<Map<String, String>> digest = digestEnabled ? new ArrayList<>() : null;
+            for (ZohoTask task : taskSnapshotCache.get(project).tasks()) {
+                evaluateTask(monitor, task, specificUser, today, digest);
+            }
+            if (digest != null) sendDigest(project, digest, specificUser);
+            return;
+        }
 
-                // FEATURE A: SCHEDULE CHANGE (Broadcast Only)
-                if (specificUser == null && task.containsKey("end_date") && task.get("end_date") != null) {
-                    String rawDate = (String) task.get("end_date");
-                    String currentDateStr = normalizeDate(rawDate);
-
-                    if (currentDateStr != null) {
-                        if (dateChangeMemory.containsKey(taskId)) {
-                            String oldDateStr = dateChangeMemory.get(taskId);
-                            if (!oldDateStr.equals(currentDateStr)) {
-                                sendScheduleChangeAlert(taskName, oldDateStr, currentDateStr, taskId, null);
-                            }
-                        }
-                        dateChangeMemory.put(taskId, currentDateStr);
-                    }
-                }
+        // The scheduler keeps the shared snapshot warm
+        TaskSnapshot snapshot = taskSnapshotCache.refresh(project).join();
+        if (!snapshot.isAvailable()) {
+            System.err.println("⚠️ No task data for '" + project.getName() + "' yet, skipping this pass");
+            return;
+        }
 
-                // FEATURE B: SLA MONITOR
-                // FIX: If specificUser exists, IGNORE memory check (Force Alert)
-                if (specificUser == null && dailyAlertMemory.containsKey(taskId)) {
-                    if (dailyAlertMemory.get(taskId).isEqual(today)) continue;
-                }
+        synchronized (monitor.passLock) {
+            TaskChanges changes = (monitor.evaluatedVersion < 0) ? null : zohoApiService.changesSince(project, monitor.evaluatedVersion);
 
-                boolean isHighPriority = false;
-                if (task.containsKey("priority")) {
-                    Object pObj = task.get("priority");
-                    String pName = (pObj instanceof Map) ? (String)((Map)pObj).get("name") : (String)pObj;
-                    if ("High".equalsIgnoreCase(pName)) isHighPriority = true;
+            if (changes == null) {
+                // First pass (or the change journal overflowed): check everything once
+                monitor.deadlineIndex.rebuild(snapshot.tasks());
+                for (ZohoTask task : snapshot.tasks()) {
+                    evaluateTask(monitor, task, null, today, broadcastDigest(monitor));
                 }
-
-                boolean shouldAlert = false;
-                String timeMessage = "";
-
-                if (task.containsKey("end_date") && task.get("end_date") != null) {
-                    String rawDate = (String) task.get("end_date");
-                    try {
-                        LocalDate dueDate = LocalDate.parse(normalizeDate(rawDate));
-                        long daysDiff = ChronoUnit.DAYS.between(today, dueDate);
-
-                        if (daysDiff <= 1) {
-                            shouldAlert = true;
-
-                            // Auto-Escalate (Only in Broadcast mode to avoid duplicates)
-                            if (specificUser == null && !isHighPriority) {
-                                System.out.println("🔨 Deadline Close. Auto-Escalating...");
-                                zohoApiService.updateTaskPriority(taskId, "High");
-                                isHighPriority = true; 
-                            }
-
-                            if (daysDiff < 0) timeMessage = Math.abs(daysDiff) + " Days Overdue";
-                            else if (daysDiff == 0) timeMessage = "Due Today";
-                            else timeMessage = "Due Tomorrow"; 
-                        } 
-                    } catch (Exception e) { }
+                monitor.evaluatedVersion = snapshot.version();
+                monitor.bandDay = today;
+            } else {
+                // Afterwards only tasks that changed since the last pass need a look
+                for (Long removedId : changes.removed()) {
+                    monitor.deadlineIndex.remove(removedId);
+                    forgetTask(monitor, removedId);
+                }
+                for (ZohoTask task : changes.upserted()) {
+                    monitor.deadlineIndex.update(task);
+                    evaluateTask(monitor, task, null, today, broadcastDigest(monitor));
                 }
+                monitor.evaluatedVersion = changes.version();
+                if (!changes.upserted().isEmpty()) System.out.println("🔍 " + changes.upserted().size() + " changed tasks checked");
+            }
+
+            // Catches a boundary timer that did not fire (e.g. monitoring was stopped overnight)
+            if (!today.equals(monitor.bandDay)) evaluateBands(monitor, today);
+            monitor.lastFullScanTime = System.currentTimeMillis();
+        }
+        armDigest(monitor);
+
+        int pendingEscalations = escalationQueue.pendingCount();
+        if (pendingEscalations > 0) System.out.println("🔨 Scan of '" + project.getName() + "' done, " + pendingEscalations + " escalations pending");
+    }
 
-                if (shouldAlert) {
-                    String ownerName = extractOwnerName(task);
-                    System.out.println("🚨 SLA Alert: " + taskName);
-                    
-                    //PASS TARGET (Null or Specific)
-                    sendSlaAlert(taskName, ownerName, timeMessage, taskId, specificUser);
-                    
-                    // Update memory only if broadcasting
-                    if (specificUser == null) dailyAlertMemory.put(taskId, today);
-                    
-                    dailyAlertMemory.put(taskId, today);
+    // --- WEBHOOK EVENTS ---
+
+    public void onWebhookReceived(MonitoredProject project) {
+        monitorFor(project).lastWebhookTime = System.currentTimeMillis();
+    }
+
+    // Checks only the task a webhook told us about, as a broadcast
+    public void onTaskChanged(MonitoredProject project, ZohoTask task) {
+        ProjectMonitor monitor = monitorFor(project);
+        monitor.deadlineIndex.update(task);
+        evaluateTask(monitor, task, null, LocalDate.now(), broadcastDigest(monitor));
+        armDigest(monitor);
+    }
+
+    public void onTaskRemoved(MonitoredProject project, long taskId) {
+        ProjectMonitor monitor = monitorFor(project);
+        monitor.deadlineIndex.remove(taskId);
+        forgetTask(monitor, taskId);
+    }
+
+    private void forgetTask(ProjectMonitor monitor, long taskId) {
+        synchronized (monitor.lockFor(taskId)) {
+            monitor.memory.forget(taskId);
+        }
+    }
+
+    // Runs the schedule-change and SLA checks for a single task; alerts go to 'digest' when it isn't null.
+    // On-demand scans (specificUser set) only read memory, so they skip the stripe lock.
+    private void evaluateTask(ProjectMonitor monitor, ZohoTask task, Connection specificUser, LocalDate today, List<Map<String, String>> digest) {
+        if (specificUser != null) {
+            checkTask(monitor, task, specificUser, today, digest);
+            return;
+        }
+        synchronized (monitor.lockFor(task.id())) {
+            checkTask(monitor, task, null, today, digest);
+        }
+    }
+
+    private void checkTask(ProjectMonitor monitor, ZohoTask task, Connection specificUser, LocalDate today, List<Map<String, String>> digest) {
+        MonitoredProject project = monitor.project;
+        AlertMemoryStore memory = monitor.memory;
+        try {
+            long taskId = task.id();
+            String taskName = task.name();
+
+            // CLEANUP (Only when running global broadcast)
+            if (!task.isOpen()) {
+                if (specificUser == null) memory.forget(taskId);
+                return; 
+            }
+
+            // FEATURE A: SCHEDULE CHANGE (Broadcast Only)
+            if (specificUser == null && task.hasDueDate()) {
+                int oldDueDay = memory.exchangeDueDay(taskId, task.dueEpochDay());
+                if (oldDueDay != AlertMemoryStore.NO_DAY && oldDueDay != task.dueEpochDay()) {
+                    sendScheduleChangeAlert(project, taskName, task.owner(), LocalDate.ofEpochDay(oldDueDay).toString(), task.dueDate().toString(), null, digest);
                 }
+            }
+
+            // FEATURE B: SLA MONITOR
+            // FIX: If specificUser exists, IGNORE memory check (Force Alert)
+            if (specificUser == null && memory.getLastAlertDay(taskId) == today.toEpochDay()) return;
 
-            } catch (Exception e) {
-                System.err.println("Skipping task: " + e.getMessage());
+            int rule = slaPolicy.match(task, today.toEpochDay());
+            if (rule == SlaPolicy.NO_RULE) return;
+
+            // Broadcasts claim today's alert first so a concurrent check can't send it twice
+            if (specificUser == null && !memory.claimAlert(taskId, (int) today.toEpochDay())) return;
+
+            // Auto-Escalate (Only in Broadcast mode to avoid duplicates)
+            String escalateTo = (specificUser == null) ? slaPolicy.escalationFor(rule, task) : null;
+            if (escalateTo != null) {
+                // Write-behind: the scan doesn't wait for Zoho
+                System.out.println("🔨 Deadline Close. Queueing escalation to " + escalateTo + "...");
+                escalationQueue.enqueue(project, taskId, escalateTo);
             }
+
+            String timeMessage = SlaPolicy.describe(task.dueEpochDay() - today.toEpochDay());
+            System.out.println("🚨 SLA Alert: " + taskName);
+
+            //PASS TARGET (Null or Specific)
+            sendSlaAlert(project, taskName, task.owner(), timeMessage, specificUser, digest);
+
+        } catch (Exception e) {
+            System.err.println("Skipping task: " + e.getMessage());
         }
     }
 
     // --- SENDING LOGIC ---
 
-    private void sendSlaAlert(String taskName, String owner, String timeMessage, String taskId, Connection target) {
+    private void sendSlaAlert(MonitoredProject project, String taskName, String owner, String timeMessage, Connection target, List<Map<String, String>> digest) {
+        if (digest != null) {
+            digest.add(Map.of("Task", String.valueOf(taskName), "Alert", "⚠️ SLA", "Details", timeMessage, "Owner", String.valueOf(owner)));
+            return;
+        }
         Map<String, Object> messageCard = new HashMap<>();
         String msg = "⚠️ **SLA BREACH:** Task '" + taskName + "' is **" + timeMessage + "**.\n" +
-                     "👤 **Owner:** " + owner;
+                     "👤 **Owner:** " + owner + projectLine(project);
         messageCard.put("text", messageComponents.createText(msg));
-        
-        String iconUrl = "https://cdn-icons-png.flaticon.com/512/595/595067.png"; 
-        Card card = new Card("CRITICAL ALERT", iconUrl, "modern-inline");
-        messageCard.put("card", messageComponents.createCard(card));
+        messageCard.put("card", messageComponents.createCard(SLA_CARD));
 
         //ROUTER
-        sendOrBroadcast(messageCard, target);
+        sendOrBroadcast(project, messageCard, target);
     }
 
-    private void sendScheduleChangeAlert(String taskName, String oldDate, String newDate, String taskId, Connection target) {
+    private void sendScheduleChangeAlert(MonitoredProject project, String taskName, String owner, String oldDate, String newDate, Connection target, List<Map<String, String>> digest) {
         LocalDate oldD = LocalDate.parse(oldDate);
         LocalDate newD = LocalDate.parse(newDate);
+
+        if (digest != null) {
+            String change = newD.isBefore(oldD) ? "⚠️ Preponed" : "🗓️ Postponed";
+            digest.add(Map.of("Task", String.valueOf(taskName), "Alert", change, "Details", oldDate + " → " + newDate, "Owner", String.valueOf(owner)));
+            return;
+        }
         
         String changeType = newD.isBefore(oldD) ? "⚠️ **PREPONED**" : "🗓️ **POSTPONED**";
-        String theme = newD.isBefore(oldD) ? "prompt" : "modern-inline";
-        String icon = "https://cdn-icons-png.flaticon.com/512/2693/2693554.png";
+        Card card = newD.isBefore(oldD) ? PREPONED_CARD : POSTPONED_CARD;
 
         Map<String, Object> messageCard = new HashMap<>();
         String msg = changeType + ": Task '" + taskName + "'\n" +
                      "🔹 **Was:** " + oldDate + "\n" +
-                     "🔹 **Now:** " + newDate;
+                     "🔹 **Now:** " + newDate + projectLine(project);
 
         messageCard.put("text", messageComponents.createText(msg));
-        Card card = new Card("SCHEDULE UPDATE", icon, theme);
         messageCard.put("card", messageComponents.createCard(card));
-        
 
         //ROUTER
-        sendOrBroadcast(messageCard, target);
+        sendOrBroadcast(project, messageCard, target);
     }
 
-    //ROUTER: Decides whether to send to ONE person or ALL
-    private void sendOrBroadcast(Map<String, Object> payload, Connection target) {
-        // A. SINGLE USER (Initial Scan)
-        if (target != null) {
-            try {
-                restTemplate.postForObject(target.getWebhookUrl(), payload, String.class);
-                System.out.println("✅ Direct Alert sent to: " + target.getUserId());
-            } catch (Exception e) {
-                System.err.println("❌ Failed to send to user: " + e.getMessage());
-            }
-        } 
-        // B. BROADCAST (Scheduler)
-        else {
-            if (BotService.registeredWebhooks.isEmpty()) return;
-
-            for (Connection user : BotService.registeredWebhooks.values()) {
-                try {
-                    restTemplate.postForObject(user.getWebhookUrl(), payload, String.class);
-                    System.out.println("✅ Broadcast sent to: " + user.getUserId());
-                } catch (Exception e) {
-                    System.err.println("❌ Failed to send to " + user.getUserId());
+    // --- DIGEST MODE ---
+
+    private List<Map<String, String>> broadcastDigest(ProjectMonitor monitor) {
+        return digestEnabled ? monitor.digestRows : null;
+    }
+
+    // Called after a pass: with no window the digest goes out right away,
+    // otherwise the first alert of a window schedules the flush
+    private void armDigest(ProjectMonitor monitor) {
+        if (!digestEnabled) return;
+        synchronized (monitor.digestRows) {
+            if (monitor.digestRows.isEmpty()) return;
+            if (digestWindowSeconds > 0) {
+                if (monitor.digestFlush == null) {
+                    monitor.digestFlush = taskScheduler.schedule(() -> flushDigest(monitor), Instant.now().plusSeconds(digestWindowSeconds));
                 }
+                return;
             }
         }
+        flushDigest(monitor);
     }
 
-    // --- HELPERS (Unchanged) ---
-    private String normalizeDate(String rawDate) {
-        try {
-            if (rawDate.contains("T")) {
-                return ZonedDateTime.parse(rawDate).toLocalDate().toString();
-            } else {
-                DateTimeFormatter fallback = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-                return LocalDate.parse(rawDate, fallback).toString();
+    private void flushDigest(ProjectMonitor monitor) {
+        List<Map<String, String>> rows;
+        synchronized (monitor.digestRows) {
+            if (monitor.digestFlush != null) {
+                monitor.digestFlush.cancel(false);
+                monitor.digestFlush = null;
             }
-        } catch (Exception e) { return null; }
+            if (monitor.digestRows.isEmpty()) return;
+            rows = new ArrayList<>(monitor.digestRows);
+            monitor.digestRows.clear();
+        }
+        sendDigest(monitor.project, rows, null);
     }
 
-    private String extractOwnerName(Map<String, Object> task) {
-        if (task.containsKey("owners_and_work")) {
-            Object containerObj = task.get("owners_and_work");
-            if (containerObj instanceof Map) {
-                Map<?, ?> containerMap = (Map<?, ?>) containerObj;
-                if (containerMap.containsKey("owners")) {
-                    Object ownersListObj = containerMap.get("owners");
-                    if (ownersListObj instanceof List) {
-                        List<?> ownersList = (List<?>) ownersListObj;
-                        if (!ownersList.isEmpty()) {
-                            Object firstOwner = ownersList.get(0);
-                            if (firstOwner instanceof Map) {
-                                return (String) ((Map<?, ?>) firstOwner).get("name");
-                            }
-                        }
-                    }
-                }
-            }
+    // One table message per subscriber, split into parts of at most digestMaxRows rows
+    private void sendDigest(MonitoredProject project, List<Map<String, String>> rows, Connection target) {
+        if (rows.isEmpty()) return;
+        int pageSize = Math.max(1, digestMaxRows);
+        int parts = (rows.size() + pageSize - 1) / pageSize;
+
+        for (int part = 0; part < parts; part++) {
+            List<Map<String, String>> page = rows.subList(part * pageSize, Math.min(rows.size(), (part + 1) * pageSize));
+            String partLabel = parts > 1 ? " (" + (part + 1) + "/" + parts + ")" : "";
+
+            Map<String, Object> messageCard = new HashMap<>();
+            String msg = "📋 **" + rows.size() + " alerts** need attention" + partLabel + projectLine(project);
+            messageCard.put("text", messageComponents.createText(msg));
+            messageCard.put("card", messageComponents.createCard(MessageComponents.DIGEST_CARD));
+            messageCard.put("slides", messageComponents.createTable(DIGEST_HEADERS, page, "🚨 Deadline Alerts" + partLabel));
+
+            sendOrBroadcast(project, messageCard, target);
         }
-        return "Unassigned";
+        System.out.println("📋 Digest of " + rows.size() + " alerts sent in " + parts + " message(s)");
+    }
+
+    //ROUTER: Decides whether to send to ONE person or ALL
+    private void sendOrBroadcast(MonitoredProject project, Map<String, Object> payload, Connection target) {
+        // A. SINGLE USER (Initial Scan)
+        if (target != null) {
+            alertDispatcher.send(target, payload);
+        } 
+        // B. BROADCAST (Scheduler)
+        else {
+            // Precomputed per project by the registry; no per-alert filtering
+            alertDispatcher.broadcast(subscriberRegistry.subscribersFor(project), payload);
+        }
+    }
+
+    // Only needed to tell projects apart when more than one is monitored
+    private String projectLine(MonitoredProject project) {
+        return projectRegistry.isMultiProject() ? "\n📁 **Project:** " + project.getName() : "";
     }
-}
\ No newline at end of file
+}
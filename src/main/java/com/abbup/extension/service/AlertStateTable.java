@@ -0,0 +1,196 @@
+package com.abbup.extension.service;
+
+// Alert state per task id: last alert day and last seen due day, both as epoch days.
+// Each entry is two primitive longs (id, packed days) in open-addressing arrays, about 16 bytes
+// per task plus load-factor slack, with no per-entry objects. The table is split into
+// segments with their own lock so writers on different tasks rarely contend.
+public class AlertStateTable {
+
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final int SEGMENTS = 64;
+    private static final long EMPTY_KEY = 0L;
+    private static final long NO_DAYS = pack(NO_DAY, NO_DAY);
+
+    public interface EntryVisitor {
+        void visit(long taskId, int alertDay, int dueDay);
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public AlertStateTable() {
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment();
+    }
+
+    public int getAlertDay(long taskId) {
+        return alertDay(segmentFor(taskId).get(taskId));
+    }
+
+    public int getDueDay(long taskId) {
+        return dueDay(segmentFor(taskId).get(taskId));
+    }
+
+    // Both setters return the previous value (NO_DAY when there was none)
+    public int putAlertDay(long taskId, int day) {
+        Segment segment = segmentFor(taskId);
+        synchronized (segment) {
+            long packed = segment.get(taskId);
+            segment.put(taskId, pack(day, dueDay(packed)));
+            return alertDay(packed);
+        }
+    }
+
+    public int putDueDay(long taskId, int day) {
+        Segment segment = segmentFor(taskId);
+        synchronized (segment) {
+            long packed = segment.get(taskId);
+            segment.put(taskId, pack(alertDay(packed), day));
+            return dueDay(packed);
+        }
+    }
+
+    public boolean remove(long taskId) {
+        Segment segment = segmentFor(taskId);
+        synchronized (segment) {
+            return segment.remove(taskId);
+        }
+    }
+
+    public long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.size;
+            }
+        }
+        return total;
+    }
+
+    // Visits one segment at a time under its lock
+    public void forEach(EntryVisitor visitor) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.forEach(visitor);
+            }
+        }
+    }
+
+    private Segment segmentFor(long taskId) {
+        return segments[(int) (mix(taskId) >>> 58)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static long pack(int alertDay, int dueDay) {
+        return ((long) alertDay << 32) | (dueDay & 0xFFFFFFFFL);
+    }
+
+    private static int alertDay(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int dueDay(long packed) {
+        return (int) packed;
+    }
+
+    // Linear probing with backward-shift deletion, so there are no tombstones to clean up.
+    // Id 0 marks a free slot and is kept in its own field.
+    private static final class Segment {
+        long[] keys = new long[16];
+        long[] values = new long[16];
+        int size = 0;
+        boolean hasZeroKey = false;
+        long zeroValue = NO_DAYS;
+
+        synchronized long get(long key) {
+            if (key == EMPTY_KEY) return hasZeroKey ? zeroValue : NO_DAYS;
+            int mask = keys.length - 1;
+            for (int i = (int) mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+                if (keys[i] == EMPTY_KEY) return NO_DAYS;
+            }
+        }
+
+        void put(long key, long value) {
+            if (value == NO_DAYS) {
+                remove(key);
+                return;
+            }
+            if (key == EMPTY_KEY) {
+                if (!hasZeroKey) size++;
+                hasZeroKey = true;
+                zeroValue = value;
+                return;
+            }
+            int mask = keys.length - 1;
+            int i = (int) mix(key) & mask;
+            while (keys[i] != EMPTY_KEY) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            // Keep the load factor at or below 3/4
+            if (size * 4L > keys.length * 3L) resize(keys.length * 2);
+        }
+
+        boolean remove(long key) {
+            if (key == EMPTY_KEY) {
+                if (!hasZeroKey) return false;
+                hasZeroKey = false;
+                zeroValue = NO_DAYS;
+                size--;
+                return true;
+            }
+            int mask = keys.length - 1;
+            int i = (int) mix(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY_KEY) return false;
+                i = (i + 1) & mask;
+            }
+            // Pull later entries of the probe run back into the gap
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != EMPTY_KEY; j = (j + 1) & mask) {
+                int home = (int) mix(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY_KEY;
+            values[gap] = 0L;
+            size--;
+            return true;
+        }
+
+        void forEach(EntryVisitor visitor) {
+            if (hasZeroKey) visitor.visit(0L, alertDay(zeroValue), dueDay(zeroValue));
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) visitor.visit(keys[i], alertDay(values[i]), dueDay(values[i]));
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[capacity];
+            values = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY_KEY) continue;
+                int j = (int) mix(oldKeys[i]) & mask;
+                while (keys[j] != EMPTY_KEY) j = (j + 1) & mask;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
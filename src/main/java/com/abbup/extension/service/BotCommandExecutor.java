@@ -0,0 +1,166 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.Card;
+
+import jakarta.annotation.PostConstruct;
+
+// Runs bot commands off the request thread. Each command gets a virtual thread and a slot from
+// that command's concurrency limit; the result is posted to the Cliq response_url when done.
+// 'deadlineguard.commands.limits' overrides the default limit per command as name:limit pairs
+// separated by ';' (e.g. setup:2;createtask:4). Only the bot's own commands, named in lower case,
+// are accepted, so callers can't grow the slot table at will.
+@Service
+public class BotCommandExecutor {
+
+    @Autowired
+    private AlertDispatcher alertDispatcher;
+
+    @Autowired
+    private MessageComponents messageComponents;
+
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+
+    @Value("${deadlineguard.commands.default-limit:8}")
+    private int defaultLimit;
+
+    @Value("${deadlineguard.commands.limits:}")
+    private String limitsSpec;
+
+    // How long a command waits for a free slot before the user is told to retry
+    @Value("${deadlineguard.commands.queue-timeout-ms:10000}")
+    private long queueTimeoutMillis;
+
+    private final ExecutorService commandExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Integer> configuredLimits = new HashMap<>();
+    private final Map<String, CommandSlots> slots = new ConcurrentHashMap<>();
+
+    private static final Set<String> KNOWN_COMMANDS = Set.of("welcome", "checkstatus", "criticallist", "tasklist",
+            "startmonitor", "stopmonitor", "createtask", "updatetask", "setup", "search");
+
+    private static final Card BUSY_CARD = new Card("TRY AGAIN SHORTLY", "https://cdn-icons-png.flaticon.com/512/1828/1828843.png", "prompt");
+
+    private static class CommandSlots {
+        final Semaphore permits;
+        final int limit;
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+
+        CommandSlots(int limit) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit);
+        }
+    }
+
+    @PostConstruct
+    public void loadLimits() {
+        if (limitsSpec == null || limitsSpec.isBlank()) return;
+        for (String entry : limitsSpec.split(";")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) continue;
+            try {
+                configuredLimits.put(parts[0].trim().toLowerCase(), Math.max(1, Integer.parseInt(parts[1].trim())));
+            } catch (NumberFormatException e) {
+                System.err.println("⚠️ Bad command limit: " + entry);
+            }
+        }
+    }
+
+    // Returns immediately; 'command' runs later and its output goes to responseUrl
+    public void submit(String commandName, String responseUrl, Supplier<Map<String, Object>> command) {
+        if (!isKnown(commandName)) throw new IllegalArgumentException("Unknown command: " + commandName);
+        CommandSlots commandSlots = slots.computeIfAbsent(commandName,
+                name -> new CommandSlots(configuredLimits.getOrDefault(name, Math.max(1, defaultLimit))));
+        commandExecutor.execute(() -> run(commandName, commandSlots, responseUrl, command));
+    }
+
+    // Exact match: callers normalize the name, so what is accepted here is what they dispatch on
+    public boolean isKnown(String commandName) {
+        return commandName != null && KNOWN_COMMANDS.contains(commandName);
+    }
+
+    private void run(String commandName, CommandSlots commandSlots, String responseUrl, Supplier<Map<String, Object>> command) {
+        try {
+            if (!commandSlots.permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                commandSlots.rejected.incrementAndGet();
+                System.err.println("🚦 Too many '" + commandName + "' commands in flight, rejecting");
+                reply(responseUrl, busyMessage(commandName));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            // Commands are the only INTERACTIVE callers of the Zoho budget
+            List<Map<String, Object>> output = new ArrayList<>(1);
+            rateLimiter.runWithPriority(ZohoRateLimiter.Priority.INTERACTIVE, () -> output.add(command.get()));
+            reply(responseUrl, output.get(0));
+            commandSlots.completed.incrementAndGet();
+        } catch (ZohoBudgetExhaustedException e) {
+            commandSlots.failed.incrementAndGet();
+            System.err.println("⏳ Command '" + commandName + "' hit the Zoho rate limit");
+            long seconds = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+            reply(responseUrl, Map.of("text", "⏳ **Zoho's API limit is reached.** Please try `" + commandName + "` again in about " + seconds + "s."));
+        } catch (Exception e) {
+            commandSlots.failed.incrementAndGet();
+            System.err.println("❌ Command '" + commandName + "' failed: " + e.getMessage());
+            reply(responseUrl, Map.of("text", "❌ **Something went wrong** running `" + commandName + "`. Please try again."));
+        } finally {
+            commandSlots.totalMillis.addAndGet(System.currentTimeMillis() - start);
+            commandSlots.permits.release();
+        }
+    }
+
+    private void reply(String responseUrl, Map<String, Object> output) {
+        if (responseUrl == null) return;
+        Map<String, Object> finalPayload = new HashMap<>();
+        finalPayload.put("output", output);
+        alertDispatcher.reply(responseUrl, finalPayload);
+    }
+
+    private Map<String, Object> busyMessage(String commandName) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("text", messageComponents.createText("⏳ **I'm busy** with other `" + commandName + "` requests right now. Please try again in a moment."));
+        response.put("card", messageComponents.createCard(BUSY_CARD));
+        return response;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        slots.forEach((name, s) -> {
+            long finished = s.completed.get() + s.failed.get();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("limit", s.limit);
+            entry.put("running", s.limit - s.permits.availablePermits());
+            entry.put("completed", s.completed.get());
+            entry.put("failed", s.failed.get());
+            entry.put("rejected", s.rejected.get());
+            entry.put("avgMillis", finished == 0 ? 0 : s.totalMillis.get() / finished);
+            result.put(name, entry);
+        });
+        return result;
+    }
+}
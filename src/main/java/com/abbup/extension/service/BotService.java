@@ -1,24 +1,30 @@
 package com.abbup.extension.service;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.abbup.extension.model.Button;
 import com.abbup.extension.model.Card;
 import com.abbup.extension.model.Connection;
+import com.abbup.extension.model.MonitoredProject;
+import com.abbup.extension.model.ZohoTask;
 
 @Service
 public class BotService {
-	public static Map<String, Connection> registeredWebhooks = new ConcurrentHashMap<>();
 	
 	@Autowired
 	private MessageComponents messageComponents;
@@ -28,61 +34,59 @@ public class BotService {
     
     @Autowired
     private AlertScheduler alertScheduler;
+    
+    @Autowired
+    private ProjectRegistry projectRegistry;
+    
+    @Autowired
+    private ReportAggregator reportAggregator;
+    
+    @Autowired
+    private SubscriberRegistry subscriberRegistry;
+    
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+    
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+    
+    @Autowired
+    private AlertDispatcher alertDispatcher;
+    
+    private static final List<String> REPORT_HEADERS = List.of("ID", "Task Name", "Owner", "Status", "Due Date");
+    
+    // Bulk /createtask and /updatetask: one record per line (or a pasted CSV block)
+    @Value("${deadlineguard.bulk.max-rows:100}")
+    private int bulkMaxRows;
+    
+    private final Semaphore bulkLimit;
+    private final ExecutorService bulkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    @Value("${deadlineguard.search.max-results:25}")
+    private int searchMaxResults;
+    
+    // One line of a bulk command: either a validation error or the Zoho call to make
+    private record BulkRow(String label, String error, BooleanSupplier call, String success) {}
+    
+    public BotService(@Value("${deadlineguard.bulk.max-concurrent:4}") int bulkMaxConcurrent) {
+        this.bulkLimit = new Semaphore(Math.max(1, bulkMaxConcurrent));
+    }
 
     public Map<String, Object> generateHealthReport() {
         System.out.println("📊 Generating Health Report...");
         
-        // 1. Fetch Data
-        List<Map<String, Object>> tasks = zohoApiService.getTasks();
-        
-        int totalOpen = 0;
-        int highPriority = 0;
-        int overdue = 0;
-        
-        if (tasks != null) {
-            LocalDate today = LocalDate.now();
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-            for (Map<String, Object> task : tasks) {
-                // Status Check
-                Map<String, Object> statusObj = (Map<String, Object>) task.get("status");
-                if (!"Open".equalsIgnoreCase((String) statusObj.get("name"))) continue;
-                
-                totalOpen++;
-
-                // Priority Check
-                Object pObj = task.get("priority");
-                String pName = (pObj instanceof Map) ? (String)((Map)pObj).get("name") : (String)pObj;
-                if ("High".equalsIgnoreCase(pName)) highPriority++;
-
-                // Date Check
-                if (task.containsKey("end_date") && task.get("end_date") != null) {
-                    String dStr = (String) task.get("end_date");
-                    try {
-                         LocalDate d;
-                         if (dStr.contains("T")) {
-                             d = java.time.ZonedDateTime.parse(dStr).toLocalDate();
-                         } else {
-                             try {
-                                 d = LocalDate.parse(dStr, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                             } catch (Exception ex) {
-                                 d = LocalDate.parse(dStr, DateTimeFormatter.ofPattern("MM-dd-yyyy"));
-                             }
-                         }
-                         
-                         if (!d.isAfter(today)) overdue++;
-                    } catch (Exception e) {}
-                }
-            }
-        }
+        // 1. Fetch Data (shared single-pass aggregate)
+        TaskReport report = reportAggregator.currentReport();
+        if (!report.isAvailable()) return dataUnavailable();
 
         Map<String, Object> response = new HashMap<>();
         
-        String reportText = "### 🩺 **Project Health: Helios Core**\n" +
+        String reportText = "### 🩺 **Project Health: " + projectRegistry.getDefault().getName() + "**\n" +
                             "----------------------------------\n" +
-                            "📝 **Open Tasks:** " + totalOpen + "\n" +
-                            "🔥 **High Priority:** " + highPriority + "\n" +
-                            "⚠️ **Overdue / Due Today:** " + overdue + "\n" +
+                            "📝 **Open Tasks:** " + report.totalOpen() + "\n" +
+                            "🔥 **High Priority:** " + report.highPriority() + "\n" +
+                            "⚠️ **Overdue / Due Today:** " + report.overdue() + "\n" +
+                            "⏳ **SLA At Risk:** " + report.atRisk() + "\n" +
                             "----------------------------------\n";
         
         response.put("text", messageComponents.createText(reportText));
@@ -97,221 +101,96 @@ public class BotService {
     
     public Map<String, Object> generateCriticalTaskList() {
     	System.out.println("📊 Generating Critical Task Table...");
-        List<Map<String, Object>> tasks = zohoApiService.getTasks();
-        
-        List<String> headers = List.of("ID", "Task Name", "Owner", "Status", "Due Date");
-        List<Map<String, String>> rows = new ArrayList<>();
-        
-        int criticalCount = 0;
-
-        if (tasks != null) {
-            LocalDate today = LocalDate.now();
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-            for (Map<String, Object> task : tasks) {
-                // Status Check
-                Map<String, Object> statusObj = (Map<String, Object>) task.get("status");
-                if (!"Open".equalsIgnoreCase((String) statusObj.get("name"))) continue;
-
-                String taskName = (String) task.get("name");
-                String taskId = String.valueOf(task.get("id"));
-                
-                boolean isCritical = false;
-                String reason = "Normal";
-                String displayDate = "-"; // Default if no date
-
-                // Priority Check
-                Object pObj = task.get("priority");
-                String pName = (pObj instanceof Map) ? (String)((Map)pObj).get("name") : (String)pObj;
-                if ("High".equalsIgnoreCase(pName)) {
-                    isCritical = true;
-                    reason = "High Priority";
-                }
-
-                // Date Check
-                if (task.containsKey("end_date") && task.get("end_date") != null) {
-                    String dStr = (String) task.get("end_date");
-                    try {
-                         LocalDate d;
-                         // Handle Timestamp format (2025-11-29T09:00:00) vs Date format (2025-11-29)
-                         if (dStr.contains("T")) {
-                             d = java.time.ZonedDateTime.parse(dStr).toLocalDate();
-                         } else {
-                             d = LocalDate.parse(dStr, fmt);
-                         }
-                         
-                         // Store the clean date for the table column
-                         displayDate = d.toString(); 
-                         
-                         if (!d.isAfter(today)) {
-                             isCritical = true;
-                             reason = "OVERDUE";
-                         }
-                    } catch (Exception e) {}
-                }
-
-                if (isCritical) {
-                    criticalCount++;
-                    
-                    // Extract Owner Name
-                    String owner = "Unassigned";
-                    if (task.containsKey("owners_and_work")) {
-                         Object containerObj = task.get("owners_and_work");
-                         if (containerObj instanceof Map) {
-                             Map<?, ?> containerMap = (Map<?, ?>) containerObj;
-                             if (containerMap.containsKey("owners")) {
-                                 Object ownersListObj = containerMap.get("owners");
-                                 if (ownersListObj instanceof List) {
-                                     List<?> ownersList = (List<?>) ownersListObj;
-                                     if (!ownersList.isEmpty()) {
-                                         Object firstOwner = ownersList.get(0);
-                                         if (firstOwner instanceof Map) {
-                                             owner = (String) ((Map<?, ?>) firstOwner).get("name");
-                                         }
-                                     }
-                                 }
-                             }
-                         }
-                    }
-                    
-                    Map<String, String> row = new HashMap<>();
-                    
-                    row.put("ID", taskId);
-                    row.put("Task Name", taskName);
-                    row.put("Owner", owner);
-                    row.put("Status", reason); 
-                    row.put("Due Date", displayDate);
-                    
-                    rows.add(row);
-                }
-            }
-        }
+        TaskReport report = reportAggregator.currentReport();
+        if (!report.isAvailable()) return dataUnavailable();
+        List<Map<String, String>> rows = report.criticalRows();
         
         Map<String, Object> response = new HashMap<>();
         
-        if (criticalCount == 0) {
+        if (rows.isEmpty()) {
              response.put("text", "✅ **No critical tasks found.** Great job!");
              return response;
         }
 
-        response.put("text", "🚨 **Critical Task Report**\nFound " + criticalCount + " items requiring immediate attention.");
+        response.put("text", "🚨 **Critical Task Report**\nFound " + rows.size() + " items requiring immediate attention.");
 
         Card card = new Card("ACTION REQUIRED", "", "modern-inline");
         response.put("card", messageComponents.createCard(card));
 
         // Table
-        response.put("slides", messageComponents.createTable(headers, rows, "⚠️ Critical Bottlenecks"));
+        response.put("slides", messageComponents.createTable(REPORT_HEADERS, rows, "⚠️ Critical Bottlenecks"));
 
         return response;
     }
     
     public Map<String, Object> generateAllTaskList() {
         System.out.println("📊 Generating Full Task List...");
-        List<Map<String, Object>> tasks = zohoApiService.getTasks();
-        
-        List<String> headers = List.of("ID", "Task Name", "Owner", "Status", "Due Date");
-        List<Map<String, String>> rows = new ArrayList<>();
-        
-        int openCount = 0;
-
-        if (tasks != null) {
-            LocalDate today = LocalDate.now();
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-            for (Map<String, Object> task : tasks) {
-                // Filter: Only show OPEN tasks
-                Map<String, Object> statusObj = (Map<String, Object>) task.get("status");
-                if (!"Open".equalsIgnoreCase((String) statusObj.get("name"))) continue;
-
-                openCount++;
-
-                // --- A. Extract Basic Data ---
-                String taskName = (String) task.get("name");
-                String taskId = String.valueOf(task.get("id"));
-                String displayDate = "-";
-                String statusLabel = "Normal";
-
-                // --- B. Determine Priority & Status Label ---
-                if (task.containsKey("priority")) {
-                    Object pObj = task.get("priority");
-                    String pName = (pObj instanceof Map) ? (String)((Map)pObj).get("name") : (String)pObj;
-                    
-                    if ("High".equalsIgnoreCase(pName)) {
-                        statusLabel = "High Priority";
-                    } else {
-                        statusLabel = pName;
-                    }
-                }
-
-                // --- C. Check Date & Overdue Status ---
-                if (task.containsKey("end_date") && task.get("end_date") != null) {
-                    String dStr = (String) task.get("end_date");
-                    try {
-                         LocalDate d;
-                         if (dStr.contains("T")) {
-                             d = java.time.ZonedDateTime.parse(dStr).toLocalDate();
-                         } else {
-                             d = LocalDate.parse(dStr, fmt);
-                         }
-                         
-                         displayDate = d.toString(); 
-                         
-                         // Overwrite status if Overdue (Visual urgency)
-                         if (!d.isAfter(today)) {
-                             statusLabel = "OVERDUE";
-                         }
-                    } catch (Exception e) {}
-                }
-
-                // --- D. Extract Owner ---
-                String owner = "Unassigned";
-                if (task.containsKey("owners_and_work")) {
-                     Object containerObj = task.get("owners_and_work");
-                     if (containerObj instanceof Map) {
-                         Map<?, ?> containerMap = (Map<?, ?>) containerObj;
-                         if (containerMap.containsKey("owners")) {
-                             Object ownersListObj = containerMap.get("owners");
-                             if (ownersListObj instanceof List) {
-                                 List<?> ownersList = (List<?>) ownersListObj;
-                                 if (!ownersList.isEmpty()) {
-                                     Object firstOwner = ownersList.get(0);
-                                     if (firstOwner instanceof Map) {
-                                         owner = (String) ((Map<?, ?>) firstOwner).get("name");
-                                     }
-                                 }
-                             }
-                         }
-                     }
-                }
-
-                // --- E. Build Row (Plain Text) ---
-                Map<String, String> row = new HashMap<>();
-                row.put("ID", taskId);
-                row.put("Task Name", taskName); // Plain text, no link
-                row.put("Owner", owner);
-                row.put("Status", statusLabel);
-                row.put("Due Date", displayDate);
-                
-                rows.add(row);
-            }
-        }
+        TaskReport report = reportAggregator.currentReport();
+        if (!report.isAvailable()) return dataUnavailable();
+        List<Map<String, String>> rows = report.allRows();
         
         Map<String, Object> response = new HashMap<>();
         
-        if (openCount == 0) {
+        if (rows.isEmpty()) {
              response.put("text", "✅ **No open tasks.** The project is clear!");
              return response;
         }
 
-        response.put("text", "📋 **Project Overview**\nHere are all **" + openCount + "** active tasks.");
+        response.put("text", "📋 **Project Overview**\nHere are all **" + rows.size() + "** active tasks.");
 
         // Header Card
         Card card = new Card("ALL OPEN TASKS", "", "modern-inline");
         response.put("card", messageComponents.createCard(card));
 
         // The Table
-        response.put("slides", messageComponents.createTable(headers, rows, "All Projects Tasks"));
+        response.put("slides", messageComponents.createTable(REPORT_HEADERS, rows, "All Projects Tasks"));
+
+        return response;
+    }
+    
+    // The first load from Zoho failed; better than reporting an empty project
+    private Map<String, Object> dataUnavailable() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("text", "⚠️ **Task data unavailable.** I couldn't load the task list from Zoho Projects. Please try again in a minute.");
+        return response;
+    }
+    
+    public Map<String, Object> handleSearchCommand(String arguments) {
+        if (arguments == null || arguments.isBlank()) {
+            return Map.of("text", "⚠️ **Usage:** `/search <words>`\nExample: `/search login jane` finds tasks whose name, owner or status has words starting with both.");
+        }
+
+        // Answered from the in-memory index; every term must match (as a word prefix)
+        long start = System.nanoTime();
+        boolean multiProject = projectRegistry.isMultiProject();
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (MonitoredProject project : projectRegistry.getAll()) {
+            for (ZohoTask task : taskSearchIndex.search(project, arguments, searchMaxResults - rows.size())) {
+                Map<String, String> row = new HashMap<>();
+                row.put("ID", task.idString());
+                row.put("Task Name", task.name());
+                row.put("Owner", task.owner());
+                row.put("Status", task.status());
+                row.put("Due Date", task.hasDueDate() ? task.dueDate().toString() : "-");
+                if (multiProject) row.put("Project", project.getName());
+                rows.add(row);
+            }
+            if (rows.size() >= searchMaxResults) break;
+        }
+        System.out.println("🔎 Search '" + arguments.trim() + "' matched " + rows.size() + " task(s) in " + (System.nanoTime() - start) / 1000 + "µs");
+
+        Map<String, Object> response = new HashMap<>();
+        if (rows.isEmpty()) {
+            response.put("text", "🔎 **No tasks match** `" + arguments.trim() + "`.");
+            return response;
+        }
 
+        String more = rows.size() >= searchMaxResults ? " (showing the first " + searchMaxResults + ")" : "";
+        response.put("text", "🔎 **Search Results**\nFound " + rows.size() + " task(s) for `" + arguments.trim() + "`" + more + ".");
+
+        List<String> headers = new ArrayList<>(REPORT_HEADERS);
+        if (multiProject) headers.add("Project");
+        response.put("slides", messageComponents.createTable(headers, rows, "Search Results"));
         return response;
     }
     
@@ -319,7 +198,7 @@ public class BotService {
         Map<String, Object> response = new HashMap<>();
         
         String manualText = "### 🤖 **Hi, I am DeadlineGuard.**\n" +
-                "I am an automated agent designed to prevent SLA breaches in **Helios Core**.\n\n" +
+                "I am an automated agent designed to prevent SLA breaches in **" + monitoredScope() + "**.\n\n" +
                 "**🔍 How I Work:**\n" +
                 "1. **Monitor:** I scan open tasks every 5 minutes.\n" +
                 "2. **Detect:** I look for tasks due **Today** or **Tomorrow**.\n" +
@@ -328,9 +207,11 @@ public class BotService {
                 
                 // 🟢 NEW SECTION: COMMANDS GUIDE
                 "**⚡ Available Commands:**\n" +
-                "• `/setup <webhook_url>` : **Required** to connect your chat for alerts.\n" +
+                "• `/setup <webhook_url> [project_id]` : **Required** to connect your chat for alerts (optionally for one project only).\n" +
                 "• `/createtask Name, Date, Priority` : Create a task instantly.\n" +
-                "• `/updatetask ID, Field, Value` : Modify task details such as Priority and Due Date.\n\n" +
+                "• `/updatetask ID, Field, Value` : Modify task details such as Priority and Due Date.\n" +
+                "• `/search words` : Find tasks by name, owner or status (word prefixes work too).\n" +
+                "• Put one task per line (or paste a CSV block) to create or update many at once.\n\n" +
                 
                 "👇 **Use the menu below to check status manually.**";
 
@@ -345,7 +226,7 @@ public class BotService {
 
     public Map<String, Object> handleStartMonitor(String userId) {
     	
-    	if (registeredWebhooks.get(userId) == null) {
+    	if (subscriberRegistry.get(userId) == null) {
             Map<String, Object> response = new HashMap<>();
 
             // A. Clear Instructions in the Text
@@ -375,7 +256,7 @@ public class BotService {
         
         if (isStarted) {
             // SUCCESS
-            response.put("text", "🟢 **System Activated!**\nDeadlineGuard is now scanning **Helios Core** every 5 minutes. Alerts will be posted here.");
+            response.put("text", "🟢 **System Activated!**\nDeadlineGuard is now scanning **" + monitoredScope() + "** every " + projectRegistry.getDefault().getScanIntervalMinutes() + " minutes. Alerts will be posted here.");
             String iconUrl = "https://cdn-icons-png.flaticon.com/512/189/189664.png"; // Info Icon
             Card card = new Card("STATUS: ACTIVATED", iconUrl, "modern-inline");
             response.put("card", messageComponents.createCard(card));
@@ -392,7 +273,8 @@ public class BotService {
     }
     
     public Map<String, Object> handleStopMonitor(String userId) {
-    	Connection removed = registeredWebhooks.remove(userId);
+    	Connection removed = subscriberRegistry.remove(userId);
+    	alertDispatcher.forget(userId);
         
         Map<String, Object> response = new HashMap<>();
         
@@ -416,8 +298,12 @@ public class BotService {
             return Map.of("text", "⚠️ **Usage:** `/createtask Task Name, YYYY-MM-DD, Priority`");
         }
 
-        // 2. Parse: Split by comma
-        String[] parts = arguments.split(",");
+        // Several lines or a CSV block (even header + one row): bulk create
+        BulkRecords.Parsed records = BulkRecords.parse(arguments);
+        if (records.rows().size() > 1 || (records.hadHeader() && !records.rows().isEmpty())) return handleBulkCreate(records.rows());
+
+        // 2. Parse: the single comma-separated record
+        String[] parts = records.rows().isEmpty() ? new String[0] : records.rows().get(0);
 
         if (parts.length < 3) {
             return Map.of("text", "❌ **Missing Info:** Please separate Name, Date, and Priority with commas.\n" +
@@ -453,6 +339,9 @@ public class BotService {
                 return Map.of("text", "❌ **API Error:** Could not create task. Please check the date format (YYYY-MM-DD).");
             }
 
+        } catch (ZohoBudgetExhaustedException e) {
+            // Not an input problem; BotCommandExecutor tells the user when to retry
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return Map.of("text", "⚠️ **Error:** Invalid input format.");
@@ -467,7 +356,11 @@ public class BotService {
             return Map.of("text", "⚠️ **Usage:** `/updatetask <ID>, <Field>, <Value>`\nExample: `/updatetask 12345, priority, High`");
         }
 
-        String[] parts = arguments.split(",");
+        // Several lines or a CSV block (even header + one row): bulk update
+        BulkRecords.Parsed records = BulkRecords.parse(arguments);
+        if (records.rows().size() > 1 || (records.hadHeader() && !records.rows().isEmpty())) return handleBulkUpdate(records.rows());
+
+        String[] parts = records.rows().isEmpty() ? new String[0] : records.rows().get(0);
         if (parts.length < 3) {
             return Map.of("text", "❌ **Missing Info:** I need ID, Field, and Value separated by commas.");
         }
@@ -500,12 +393,129 @@ public class BotService {
                 return Map.of("text", "❌ **Update Failed:** Check if the Task ID is correct.");
             }
 
+        } catch (ZohoBudgetExhaustedException e) {
+            // Not an input problem; BotCommandExecutor tells the user when to retry
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return Map.of("text", "⚠️ **Error:** Invalid format.");
         }
     }
     
+    // --- BULK COMMANDS ---
+
+    private Map<String, Object> handleBulkCreate(List<String[]> records) {
+        List<BulkRow> rows = new ArrayList<>();
+        for (String[] fields : records) {
+            String label = fields[0];
+            if (fields.length < 3) {
+                rows.add(new BulkRow(label, "❌ Need Name, Date, Priority", null, null));
+                continue;
+            }
+            String taskName = fields[0], dueDate = fields[1], priority = fields[2];
+            if (!isValidFutureDate(dueDate)) {
+                rows.add(new BulkRow(label, "❌ Invalid date " + dueDate, null, null));
+            } else if (!isValidPriority(priority)) {
+                rows.add(new BulkRow(label, "❌ Invalid priority " + priority, null, null));
+            } else {
+                rows.add(new BulkRow(label, null, () -> zohoApiService.createTask(taskName, dueDate, priority),
+                        "✅ Created (" + dueDate + ", " + priority + ")"));
+            }
+        }
+        return runBulk("Create", "Task", rows);
+    }
+
+    private Map<String, Object> handleBulkUpdate(List<String[]> records) {
+        List<BulkRow> rows = new ArrayList<>();
+        for (String[] fields : records) {
+            String label = fields[0];
+            if (fields.length < 3) {
+                rows.add(new BulkRow(label, "❌ Need ID, Field, Value", null, null));
+                continue;
+            }
+            String taskId = fields[0], field = fields[1].toLowerCase(), value = fields[2];
+            if ((field.contains("date") || field.equals("due_date")) && !isValidFutureDate(value)) {
+                rows.add(new BulkRow(label, "❌ Invalid date " + value, null, null));
+            } else if (field.equals("priority") && !isValidPriority(value)) {
+                rows.add(new BulkRow(label, "❌ Invalid priority " + value, null, null));
+            } else {
+                rows.add(new BulkRow(label, null, () -> zohoApiService.updateTaskField(taskId, field, value),
+                        "✅ " + field + " → " + value));
+            }
+        }
+        return runBulk("Update", "Task ID", rows);
+    }
+
+    // Submits the valid rows concurrently (bounded; the rate limiter paces the actual calls)
+    // and answers with one summary table
+    private Map<String, Object> runBulk(String action, String labelHeader, List<BulkRow> rows) {
+        if (rows.size() > bulkMaxRows) {
+            return createErrorResponse("❌ **Too Many Rows:** " + rows.size() + " lines sent, the limit is " + bulkMaxRows + " per command.");
+        }
+        System.out.println("📦 Bulk " + action + ": " + rows.size() + " rows");
+
+        List<Future<Boolean>> calls = new ArrayList<>(rows.size());
+        // Row threads don't inherit the command's API priority, so carry it explicitly
+        ZohoRateLimiter.Priority priority = rateLimiter.currentPriority();
+        for (BulkRow row : rows) {
+            if (row.error() != null) {
+                calls.add(null);
+                continue;
+            }
+            calls.add(bulkExecutor.submit(() -> {
+                bulkLimit.acquire();
+                try {
+                    boolean[] ok = { false };
+                    rateLimiter.runWithPriority(priority, () -> ok[0] = row.call().getAsBoolean());
+                    return ok[0];
+                } finally {
+                    bulkLimit.release();
+                }
+            }));
+        }
+
+        List<Map<String, String>> tableRows = new ArrayList<>(rows.size());
+        int succeeded = 0, failed = 0, invalid = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            BulkRow row = rows.get(i);
+            String result;
+            if (row.error() != null) {
+                result = row.error();
+                invalid++;
+            } else {
+                boolean ok;
+                boolean throttled = false;
+                try {
+                    ok = calls.get(i).get();
+                } catch (ExecutionException e) {
+                    ok = false;
+                    throttled = e.getCause() instanceof ZohoBudgetExhaustedException;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                if (ok) succeeded++;
+                else failed++;
+                result = ok ? row.success() : throttled ? "⏳ Zoho rate limit, retry later" : "❌ API Error";
+            }
+            Map<String, String> tableRow = new HashMap<>();
+            tableRow.put("#", Integer.toString(i + 1));
+            tableRow.put(labelHeader, row.label());
+            tableRow.put("Result", result);
+            tableRows.add(tableRow);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        String msg = "📦 **Bulk " + action + ":** " + succeeded + " succeeded, " + failed + " failed, " + invalid + " invalid";
+        response.put("text", messageComponents.createText(msg));
+        response.put("slides", messageComponents.createTable(List.of("#", labelHeader, "Result"), tableRows, "Bulk " + action + " Results"));
+        return response;
+    }
+
+    private String monitoredScope() {
+        List<MonitoredProject> projects = projectRegistry.getAll();
+        return projects.size() == 1 ? projects.get(0).getName() : projects.size() + " projects";
+    }
+    
     private boolean isValidPriority(String p) {
         if (p == null) return false;
         String val = p.trim();
@@ -562,11 +572,22 @@ public class BotService {
             return response;
         }
 
-        String cleanUrl = arguments.trim();
+        // Optional second argument scopes the subscription to one project: /setup <url> <projectId>
+        String[] setupArgs = arguments.trim().split("\\s+");
+        String cleanUrl = setupArgs[0];
+        String projectKey = null;
+        if (setupArgs.length > 1) {
+            MonitoredProject project = projectRegistry.findByIds(null, setupArgs[1]);
+            if (project == null) {
+                return createErrorResponse("❌ **Unknown Project:** `" + setupArgs[1] + "` is not monitored by this instance.");
+            }
+            projectKey = project.getKey();
+        }
         
         // --- B. STORE IT ---
-        Connection conn = new Connection(userId, cleanUrl);
-        registeredWebhooks.put(userId, conn);
+        Connection conn = new Connection(userId, cleanUrl, projectKey);
+        subscriberRegistry.register(conn);
+        alertDispatcher.retarget(conn);
         System.out.println("✅ New Webhook Registered: " + cleanUrl);
 
         // --- C. TEST FIRE (Directly) ---
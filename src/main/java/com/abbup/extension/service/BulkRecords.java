@@ -0,0 +1,84 @@
+package com.abbup.extension.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Parses the text of /createtask and /updatetask: one record per non-blank line, fields
+// comma-separated with optional "quotes" ("" is a literal quote inside them).
+// A first line is taken as a CSV header only when none of its fields looks like data
+// (a date, a priority or a number), so a real task called "Task" or "Name" is kept.
+final class BulkRecords {
+
+    record Parsed(List<String[]> rows, boolean hadHeader) {}
+
+    private BulkRecords() {}
+
+    static Parsed parse(String arguments) {
+        List<String[]> rows = new ArrayList<>();
+        boolean hadHeader = false;
+        boolean first = true;
+        for (String line : arguments.split("\\R")) {
+            if (line.isBlank()) continue;
+            String[] fields = parseCsvLine(line);
+            if (first && isHeader(fields)) hadHeader = true;
+            else rows.add(fields);
+            first = false;
+        }
+        return new Parsed(rows, hadHeader);
+    }
+
+    static boolean isHeader(String[] fields) {
+        if (fields.length < 2) return false;
+        for (String field : fields) {
+            if (field.isEmpty() || isPriority(field) || isDate(field) || isNumber(field)) return false;
+        }
+        return true;
+    }
+
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                // "" inside quotes is a literal quote
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    static boolean isPriority(String value) {
+        return value.equalsIgnoreCase("High") || value.equalsIgnoreCase("Medium") || value.equalsIgnoreCase("Low");
+    }
+
+    private static boolean isDate(String value) {
+        try {
+            LocalDate.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.abbup.extension.model.ZohoTask;
+
+// Open tasks ordered by due day. At a day boundary the SLA bands (due tomorrow, due today,
+// overdue) are exactly the tasks due on or before tomorrow, read as one head range.
+public class DeadlineIndex {
+
+    private final TreeMap<Integer, Set<Long>> byDueDay = new TreeMap<>();
+    private final Map<Long, Integer> dueDayById = new HashMap<>();
+
+    public synchronized void update(ZohoTask task) {
+        remove(task.id());
+        if (!task.isOpen() || !task.hasDueDate()) return;
+
+        byDueDay.computeIfAbsent(task.dueEpochDay(), day -> new HashSet<>()).add(task.id());
+        dueDayById.put(task.id(), task.dueEpochDay());
+    }
+
+    public synchronized void remove(long taskId) {
+        Integer day = dueDayById.remove(taskId);
+        if (day == null) return;
+        Set<Long> ids = byDueDay.get(day);
+        if (ids != null) {
+            ids.remove(taskId);
+            if (ids.isEmpty()) byDueDay.remove(day);
+        }
+    }
+
+    public synchronized void rebuild(List<ZohoTask> tasks) {
+        byDueDay.clear();
+        dueDayById.clear();
+        for (ZohoTask task : tasks) update(task);
+    }
+
+    public synchronized List<Long> dueOnOrBefore(long epochDay) {
+        List<Long> ids = new ArrayList<>();
+        NavigableMap<Integer, Set<Long>> head = byDueDay.headMap((int) Math.min(epochDay, Integer.MAX_VALUE), true);
+        for (Set<Long> sameDay : head.values()) ids.addAll(sameDay);
+        return ids;
+    }
+
+    public synchronized int size() {
+        return dueDayById.size();
+    }
+}
@@ -0,0 +1,212 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.MonitoredProject;
+
+// Write-behind queue for auto-escalations. Scans only record "task X should become priority P";
+// a background drainer pushes the updates to Zoho with bounded concurrency at background rate-limit
+// priority. Repeated requests for the same task coalesce into one update (the latest priority wins),
+// and a task already being updated to that priority is not queued again. Failed updates go back
+// on the queue with exponential backoff, up to 'deadlineguard.escalation.max-attempts' tries.
+// Between rounds the drainer sleeps until the earliest queued update is due, or until an enqueue
+// wakes it to look again.
+//
+// Zoho Projects has no documented bulk task-update endpoint for this API, so each task is still
+// its own request; what the queue saves is scan time and duplicate updates.
+@Service
+public class EscalationQueue {
+
+    @Autowired
+    private ZohoApiService zohoApiService;
+
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+
+    // Short delay before a new escalation goes out so a burst from one pass coalesces
+    @Value("${deadlineguard.escalation.flush-delay-ms:500}")
+    private long flushDelayMillis;
+
+    @Value("${deadlineguard.escalation.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${deadlineguard.escalation.retry-delay-ms:2000}")
+    private long retryDelayMillis;
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 300_000;
+
+    private final Semaphore concurrencyLimit;
+    private final ExecutorService escalationExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<EscalationKey, Escalation> pending = new ConcurrentHashMap<>();
+    private final Map<EscalationKey, String> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final ReentrantLock wakeLock = new ReentrantLock();
+    private final Condition queueChanged = wakeLock.newCondition();
+    // Guarded by wakeLock; lets the drainer notice an enqueue that raced with its last scan
+    private long queueChanges = 0;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private record EscalationKey(String projectKey, long taskId) {}
+
+    // 'notBefore' holds an update back for the flush delay, or a retry until its backoff has passed
+    private record Escalation(MonitoredProject project, long taskId, String priority, int attempts, long notBefore) {}
+
+    public EscalationQueue(@Value("${deadlineguard.escalation.max-concurrent:4}") int maxConcurrent) {
+        this.concurrencyLimit = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    // Never blocks on Zoho
+    public void enqueue(MonitoredProject project, long taskId, String priority) {
+        EscalationKey key = new EscalationKey(project.getKey(), taskId);
+        if (priority.equalsIgnoreCase(inFlight.get(key))) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        long notBefore = System.currentTimeMillis() + flushDelayMillis;
+        if (pending.put(key, new Escalation(project, taskId, priority, 1, notBefore)) != null) coalesced.incrementAndGet();
+        else queued.incrementAndGet();
+
+        wakeDrainer();
+    }
+
+    private void wakeDrainer() {
+        wakeLock.lock();
+        try {
+            queueChanges++;
+            queueChanged.signal();
+        } finally {
+            wakeLock.unlock();
+        }
+        if (draining.compareAndSet(false, true)) escalationExecutor.execute(this::drain);
+    }
+
+    public int pendingCount() {
+        return pending.size() + inFlight.size();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                long seenChanges = queueChanges();
+                long now = System.currentTimeMillis();
+                long nextDue = Long.MAX_VALUE;
+                List<Future<?>> batch = new ArrayList<>();
+                for (EscalationKey key : new ArrayList<>(pending.keySet())) {
+                    Escalation escalation = pending.get(key);
+                    if (escalation == null) continue;
+                    // Not due yet: stays queued, and decides how long the drainer may sleep
+                    if (escalation.notBefore() > now) {
+                        nextDue = Math.min(nextDue, escalation.notBefore());
+                        continue;
+                    }
+                    if (!pending.remove(key, escalation)) continue;
+                    inFlight.put(key, escalation.priority());
+                    concurrencyLimit.acquire();
+                    batch.add(escalationExecutor.submit(() -> apply(key, escalation)));
+                }
+                for (Future<?> update : batch) {
+                    try {
+                        update.get();
+                    } catch (ExecutionException e) {
+                        // apply() handles its own failures; keep draining whatever is left
+                        System.err.println("❌ Escalation update crashed: " + e.getCause());
+                    }
+                }
+
+                // Applied updates may have queued retries; look again straight away
+                if (!batch.isEmpty()) continue;
+
+                if (nextDue == Long.MAX_VALUE) {
+                    // Stop, unless something was queued after the last check
+                    draining.set(false);
+                    if (pending.isEmpty() || !draining.compareAndSet(false, true)) return;
+                    continue;
+                }
+
+                wakeLock.lock();
+                try {
+                    if (queueChanges == seenChanges) queueChanged.await(nextDue - now, TimeUnit.MILLISECONDS);
+                } finally {
+                    wakeLock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            draining.set(false);
+        }
+    }
+
+    private void apply(EscalationKey key, Escalation escalation) {
+        boolean[] ok = { false };
+        try {
+            rateLimiter.runInBackground(() -> ok[0] = zohoApiService.updateTaskPriority(escalation.project(),
+                    Long.toString(escalation.taskId()), escalation.priority()));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Escalation of task " + escalation.taskId() + " failed: " + e.getMessage());
+        } finally {
+            inFlight.remove(key);
+            concurrencyLimit.release();
+        }
+        if (ok[0]) applied.incrementAndGet();
+        else retryLater(key, escalation);
+    }
+
+    // Today's alert is already claimed, so a dropped update would not be retried until tomorrow
+    private void retryLater(EscalationKey key, Escalation escalation) {
+        if (escalation.attempts() >= maxAttempts) {
+            failed.incrementAndGet();
+            System.err.println("☠️ Giving up escalating task " + escalation.taskId() + " after " + escalation.attempts() + " attempts");
+            return;
+        }
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, retryDelayMillis << Math.min(escalation.attempts() - 1, 20));
+        Escalation retry = new Escalation(escalation.project(), escalation.taskId(), escalation.priority(),
+                escalation.attempts() + 1, System.currentTimeMillis() + delay);
+        // A newer request for the task queued meanwhile takes precedence
+        if (pending.putIfAbsent(key, retry) == null) retried.incrementAndGet();
+        wakeDrainer();
+    }
+
+    private long queueChanges() {
+        wakeLock.lock();
+        try {
+            return queueChanges;
+        } finally {
+            wakeLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("inFlight", inFlight.size());
+        stats.put("queued", queued.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("applied", applied.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+}
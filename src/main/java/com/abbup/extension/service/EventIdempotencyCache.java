@@ -0,0 +1,84 @@
+package com.abbup.extension.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Remembers recently handled Cliq events so platform retries of the same event are dropped
+// instead of re-running the command (and, for createtask, creating the task twice).
+// Events are keyed by a SHA-256 fingerprint of their identifying fields; entries expire after
+// the TTL and the oldest are evicted beyond max-entries.
+@Service
+public class EventIdempotencyCache {
+
+    @Value("${deadlineguard.events.dedup-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${deadlineguard.events.dedup-max-entries:10000}")
+    private int maxEntries;
+
+    // Insertion order == arrival order, so expired entries are always at the head
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0); // field separator
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    // True the first time a fingerprint is seen within the TTL; false for repeats
+    public synchronized boolean firstSeen(String fingerprint) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        Long seenAt = seen.get(fingerprint);
+        if (seenAt != null) {
+            duplicates.incrementAndGet();
+            return false;
+        }
+
+        seen.put(fingerprint, now);
+        if (seen.size() > maxEntries) {
+            Iterator<String> oldest = seen.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    private void evictExpired(long now) {
+        long cutoff = now - ttlSeconds * 1000L;
+        Iterator<Map.Entry<String, Long>> entries = seen.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getValue() >= cutoff) break;
+            entries.remove();
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tracked", seen.size());
+        stats.put("accepted", accepted.get());
+        stats.put("duplicates", duplicates.get());
+        return stats;
+    }
+}
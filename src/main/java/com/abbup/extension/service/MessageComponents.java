@@ -1,9 +1,11 @@
 package com.abbup.extension.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.springframework.stereotype.Component;
 
@@ -12,16 +14,23 @@ import com.abbup.extension.model.Card;
 
 @Component
 public class MessageComponents {
+	// Heads both the scheduler's digests and the delivery queues' coalesced digests
+	static final Card DIGEST_CARD = new Card("ALERT DIGEST", "https://cdn-icons-png.flaticon.com/512/595/595067.png", "modern-inline");
+	
+	// Card maps are built once per Card instance, so the static alert cards share theirs. Card has
+	// no equals/hashCode, so entries are per instance and one-off cards drop out once collected.
+	private final Map<Card, Map<String, String>> cardCache = Collections.synchronizedMap(new WeakHashMap<>());
+	
 	public String createText(String text) {
 		return text;
 	}
 	
 	public Map<String, String> createCard(Card card) {
-		return Map.ofEntries(
+		return cardCache.computeIfAbsent(card, k -> Map.ofEntries(
 					Map.entry("title", card.getTitle()),
 					Map.entry("thumbnail", card.getThumbnail()),
 					Map.entry("theme", card.getTheme())
-				);
+				));
 	}
 	
 	public List<Object> createButtons(Button... buttons) {
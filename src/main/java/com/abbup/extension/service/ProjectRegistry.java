@@ -0,0 +1,95 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.MonitoredProject;
+
+import jakarta.annotation.PostConstruct;
+
+// The portal/project pairs this instance monitors.
+// 'deadlineguard.projects' lists them as portalId:projectId:Name[:intervalMinutes] separated by ';'.
+// When it is empty, the single zoho.portal.id / zoho.project.id pair is used.
+@Service
+public class ProjectRegistry {
+
+    @Value("${deadlineguard.projects:}")
+    private String projectsSpec;
+    @Value("${zoho.portal.id}")
+    private String defaultPortalId;
+    @Value("${zoho.project.id}")
+    private String defaultProjectId;
+    @Value("${deadlineguard.project.name:Helios Core}")
+    private String defaultProjectName;
+    @Value("${deadlineguard.poll.interval-minutes:5}")
+    private long defaultIntervalMinutes;
+
+    private final Map<String, MonitoredProject> projects = new LinkedHashMap<>();
+    private MonitoredProject defaultProject;
+
+    @PostConstruct
+    public void load() {
+        if (projectsSpec != null && !projectsSpec.isBlank()) {
+            for (String entry : projectsSpec.split(";")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length < 2) {
+                    System.err.println("⚠️ Ignoring project entry: " + entry);
+                    continue;
+                }
+                String name = (parts.length > 2 && !parts[2].isBlank()) ? parts[2].trim() : parts[1].trim();
+                long interval = defaultIntervalMinutes;
+                if (parts.length > 3) {
+                    try {
+                        interval = Long.parseLong(parts[3].trim());
+                    } catch (NumberFormatException e) {
+                        System.err.println("⚠️ Bad scan interval for " + name + ", using default");
+                    }
+                }
+                register(new MonitoredProject(parts[0].trim(), parts[1].trim(), name, interval));
+            }
+        }
+        if (projects.isEmpty()) {
+            register(new MonitoredProject(defaultPortalId, defaultProjectId, defaultProjectName, defaultIntervalMinutes));
+        }
+        defaultProject = projects.values().iterator().next();
+        System.out.println("📁 Monitoring " + projects.size() + " project(s)");
+    }
+
+    private void register(MonitoredProject project) {
+        projects.put(project.getKey(), project);
+    }
+
+    public List<MonitoredProject> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(projects.values()));
+    }
+
+    // The first configured project; bot commands without a project argument act on it
+    public MonitoredProject getDefault() {
+        return defaultProject;
+    }
+
+    public MonitoredProject find(String key) {
+        return (key == null) ? null : projects.get(key);
+    }
+
+    // Resolves a webhook or command reference by project id (and portal id when given)
+    public MonitoredProject findByIds(String portalId, String projectId) {
+        if (projectId == null) return null;
+        for (MonitoredProject project : projects.values()) {
+            if (project.getProjectId().equals(projectId) && (portalId == null || project.getPortalId().equals(portalId))) {
+                return project;
+            }
+        }
+        return null;
+    }
+
+    public boolean isMultiProject() {
+        return projects.size() > 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.abbup.extension.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.ZohoTask;
+
+// Builds the bot reports' numbers and table rows in a single pass over the task snapshot.
+// The result is reused until the snapshot version or the day changes, so CheckStatus,
+// CriticalList and TaskList are just views over it. Large snapshots are split into chunks
+// aggregated in parallel and merged in order.
+@Service
+public class ReportAggregator {
+
+    @Autowired
+    private TaskSnapshotCache taskSnapshotCache;
+
+    @Autowired
+    private SlaPolicy slaPolicy;
+
+    @Value("${deadlineguard.reports.parallel-threshold:20000}")
+    private int parallelThreshold;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final AtomicReference<TaskReport> lastReport = new AtomicReference<>();
+
+    private static class Partial {
+        int totalOpen;
+        int highPriority;
+        int overdue;
+        int atRisk;
+        final List<Map<String, String>> criticalRows = new ArrayList<>();
+        final List<Map<String, String>> allRows = new ArrayList<>();
+
+        Partial merge(Partial next) {
+            totalOpen += next.totalOpen;
+            highPriority += next.highPriority;
+            overdue += next.overdue;
+            atRisk += next.atRisk;
+            criticalRows.addAll(next.criticalRows);
+            allRows.addAll(next.allRows);
+            return this;
+        }
+    }
+
+    public TaskReport currentReport() {
+        TaskSnapshot snapshot = taskSnapshotCache.get();
+        long today = LocalDate.now().toEpochDay();
+        // Not cached: the next report should retry the load rather than keep showing nothing
+        if (!snapshot.isAvailable()) return TaskReport.unavailable(today);
+
+        TaskReport cached = lastReport.get();
+        if (cached != null && cached.version() == snapshot.version() && cached.day() == today) return cached;
+
+        long start = System.currentTimeMillis();
+        TaskReport report = aggregate(snapshot, today);
+        lastReport.set(report);
+        System.out.println("📊 Aggregated " + snapshot.tasks().size() + " tasks in " + (System.currentTimeMillis() - start) + "ms");
+        return report;
+    }
+
+    private TaskReport aggregate(TaskSnapshot snapshot, long today) {
+        List<ZohoTask> tasks = (snapshot.tasks() == null) ? List.of() : snapshot.tasks();
+
+        Partial total;
+        if (tasks.size() < parallelThreshold) {
+            total = aggregateRange(tasks, 0, tasks.size(), today);
+        } else {
+            int chunks = (tasks.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            total = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> aggregateRange(tasks, chunk * CHUNK_SIZE, Math.min(tasks.size(), (chunk + 1) * CHUNK_SIZE), today))
+                    .reduce(Partial::merge)
+                    .orElseGet(Partial::new);
+        }
+
+        return new TaskReport(snapshot.version(), today, total.totalOpen, total.highPriority, total.overdue, total.atRisk,
+                Collections.unmodifiableList(total.criticalRows), Collections.unmodifiableList(total.allRows));
+    }
+
+    private Partial aggregateRange(List<ZohoTask> tasks, int from, int to, long today) {
+        Partial partial = new Partial();
+        for (int i = from; i < to; i++) {
+            ZohoTask task = tasks.get(i);
+            // Only open tasks count anywhere
+            if (!task.isOpen()) continue;
+            partial.totalOpen++;
+
+            boolean highPriority = task.isHighPriority();
+            if (highPriority) partial.highPriority++;
+
+            boolean overdue = task.hasDueDate() && task.dueEpochDay() <= today;
+            if (overdue) partial.overdue++;
+
+            // Counted beside the overdue figure; the rows keep their due-today-or-earlier meaning
+            if (slaPolicy.match(task, today) != SlaPolicy.NO_RULE) partial.atRisk++;
+
+            String displayDate = task.hasDueDate() ? task.dueDate().toString() : "-";
+
+            // Full list: overdue wins over priority (visual urgency)
+            String statusLabel = "Normal";
+            if (task.priority() != null) statusLabel = highPriority ? "High Priority" : task.priority();
+            if (overdue) statusLabel = "OVERDUE";
+            partial.allRows.add(row(task, statusLabel, displayDate));
+
+            // Critical list: high priority, overdue or due today
+            if (highPriority || overdue) {
+                partial.criticalRows.add(row(task, overdue ? "OVERDUE" : "High Priority", displayDate));
+            }
+        }
+        return partial;
+    }
+
+    private static Map<String, String> row(ZohoTask task, String status, String displayDate) {
+        Map<String, String> row = new HashMap<>();
+        row.put("ID", task.idString());
+        row.put("Task Name", task.name());
+        row.put("Owner", task.owner());
+        row.put("Status", status);
+        row.put("Due Date", displayDate);
+        return row;
+    }
+}
@@ -0,0 +1,186 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.ZohoTask;
+
+import jakarta.annotation.PostConstruct;
+
+// The SLA rules shared by the alert scheduler and the bot reports.
+// 'deadlineguard.sla.rules' lists rules separated by ';', each a comma-separated list of
+//   priority=High|Medium   match these priorities (any when omitted)
+//   owner=Jane Doe|Sam     match these owners (any when omitted)
+//   within=2               breached once the task is due in this many days or fewer (negative = overdue by)
+//   escalate=High          priority to raise a breached task to, never lowering it (none when omitted)
+// The first rule whose priority/owner match a task decides its threshold, so overrides go first.
+// Rules are compiled once into bitmasks (up to 64 rules): each priority or owner value maps to the
+// set of rules it satisfies, so matching a task is two lookups and a bit scan, allocating nothing.
+@Service
+public class SlaPolicy {
+
+    public static final int NO_RULE = -1;
+    private static final int MAX_RULES = Long.SIZE;
+
+    @Value("${deadlineguard.sla.rules:within=1,escalate=High}")
+    private String rulesSpec;
+
+    // Compiled rules, one slot per rule; null selector arrays match anything
+    private String[][] priorities;
+    private String[][] owners;
+    private int[] withinDays;
+    private String[] escalations;
+    private int maxWithinDays;
+
+    // Rule bitmasks per priority/owner value, filled lazily (values are interned and few)
+    private final Map<String, Long> priorityMasks = new ConcurrentHashMap<>();
+    private final Map<String, Long> ownerMasks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void compile() {
+        List<String[]> priorityList = new ArrayList<>();
+        List<String[]> ownerList = new ArrayList<>();
+        List<Integer> withinList = new ArrayList<>();
+        List<String> escalationList = new ArrayList<>();
+
+        for (String entry : rulesSpec.split(";")) {
+            if (entry.isBlank()) continue;
+            String[] priority = null;
+            String[] owner = null;
+            Integer within = null;
+            String escalate = null;
+            for (String pair : entry.split(",")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) continue;
+                String key = pair.substring(0, eq).trim().toLowerCase();
+                String value = pair.substring(eq + 1).trim();
+                try {
+                    switch (key) {
+                        case "priority" -> priority = alternatives(value);
+                        case "owner" -> owner = alternatives(value);
+                        case "within" -> within = Integer.parseInt(value);
+                        case "escalate" -> {
+                            escalate = value.isEmpty() ? null : value.intern();
+                            if (escalate != null && rank(escalate) == 0) System.err.println("⚠️ Unknown escalation priority '" + value + "' in: " + entry);
+                        }
+                        default -> System.err.println("⚠️ Unknown SLA rule key '" + key + "' in: " + entry);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("⚠️ Bad SLA threshold in: " + entry);
+                }
+            }
+            if (within == null) {
+                System.err.println("⚠️ Ignoring SLA rule without 'within': " + entry);
+                continue;
+            }
+            if (withinList.size() == MAX_RULES) {
+                System.err.println("⚠️ Only the first " + MAX_RULES + " SLA rules are used");
+                break;
+            }
+            priorityList.add(priority);
+            ownerList.add(owner);
+            withinList.add(within);
+            escalationList.add(escalate);
+        }
+
+        if (withinList.isEmpty()) {
+            System.err.println("⚠️ No usable SLA rules, falling back to within=1,escalate=High");
+            priorityList.add(null);
+            ownerList.add(null);
+            withinList.add(1);
+            escalationList.add("High");
+        }
+
+        priorities = priorityList.toArray(new String[0][]);
+        owners = ownerList.toArray(new String[0][]);
+        escalations = escalationList.toArray(new String[0]);
+        withinDays = new int[withinList.size()];
+        maxWithinDays = Integer.MIN_VALUE;
+        for (int i = 0; i < withinDays.length; i++) {
+            withinDays[i] = withinList.get(i);
+            maxWithinDays = Math.max(maxWithinDays, withinDays[i]);
+        }
+        priorityMasks.clear();
+        ownerMasks.clear();
+        System.out.println("📏 Compiled " + withinDays.length + " SLA rule(s)");
+    }
+
+    private static String[] alternatives(String value) {
+        if (value.isEmpty() || value.equals("*")) return null;
+        String[] options = value.split("\\|");
+        for (int i = 0; i < options.length; i++) options[i] = options[i].trim().intern();
+        return options;
+    }
+
+    // Index of the rule an open task breaches today, or NO_RULE
+    public int match(ZohoTask task, long todayEpochDay) {
+        if (!task.isOpen() || !task.hasDueDate()) return NO_RULE;
+        long daysDiff = task.dueEpochDay() - todayEpochDay;
+        // Most tasks are further out than any threshold
+        if (daysDiff > maxWithinDays) return NO_RULE;
+
+        long candidates = maskFor(priorityMasks, priorities, task.priority()) & maskFor(ownerMasks, owners, task.owner());
+        if (candidates == 0) return NO_RULE;
+        int rule = Long.numberOfTrailingZeros(candidates);
+        return daysDiff <= withinDays[rule] ? rule : NO_RULE;
+    }
+
+    private long maskFor(Map<String, Long> cache, String[][] selectors, String value) {
+        String key = (value == null) ? "" : value;
+        Long mask = cache.get(key);
+        if (mask == null) {
+            mask = computeMask(selectors, key);
+            cache.put(key, mask);
+        }
+        return mask;
+    }
+
+    // Bit i is set when rule i's selector accepts the value
+    private static long computeMask(String[][] selectors, String value) {
+        long mask = 0;
+        for (int i = 0; i < selectors.length; i++) {
+            boolean accepted = selectors[i] == null;
+            if (!accepted) {
+                for (String option : selectors[i]) {
+                    if (option.equalsIgnoreCase(value)) accepted = true;
+                }
+            }
+            if (accepted) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    // Priority to raise the task to under this rule, or null when there is nothing to change.
+    // Only ever raises: a task already at or above the target is left alone.
+    public String escalationFor(int rule, ZohoTask task) {
+        if (rule == NO_RULE) return null;
+        String target = escalations[rule];
+        return (target == null || rank(target) <= rank(task.priority())) ? null : target;
+    }
+
+    // High > Medium > Low > anything else (including no priority)
+    static int rank(String priority) {
+        if (priority == null) return 0;
+        if (priority.equalsIgnoreCase("High")) return 3;
+        if (priority.equalsIgnoreCase("Medium")) return 2;
+        if (priority.equalsIgnoreCase("Low")) return 1;
+        return 0;
+    }
+
+    // Alerts can't fire for tasks due later than this many days from today
+    public int maxWithinDays() {
+        return maxWithinDays;
+    }
+
+    public static String describe(long daysDiff) {
+        if (daysDiff < 0) return Math.abs(daysDiff) + " Days Overdue";
+        if (daysDiff == 0) return "Due Today";
+        if (daysDiff == 1) return "Due Tomorrow";
+        return "Due in " + daysDiff + " Days";
+    }
+}
@@ -0,0 +1,247 @@
+package com.abbup.extension.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.Connection;
+import com.abbup.extension.model.MonitoredProject;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Chat subscribers registered with /setup, kept across restarts.
+// Every change is written through to an append-only log (one tab-separated line per change)
+// before it becomes visible; startup replays the log, and it is rewritten down to the live
+// entries whenever it holds more than twice as many lines. The log holds webhook URLs (with
+// their zapikey), so it is created owner-only where the file system supports it.
+// Besides the by-user map it keeps indexes by project and by webhook host; broadcast routing
+// reads a precomputed recipient list per project instead of filtering everyone, and delivery
+// metrics are rolled up per host from the host index.
+@Service
+public class SubscriberRegistry {
+
+    private static final String ALL_PROJECTS = "*";
+    // Don't bother compacting tiny logs
+    private static final int MIN_COMPACTION_RECORDS = 64;
+
+    @Value("${deadlineguard.state.dir:./data}")
+    private String stateDir;
+
+    private Path logFile;
+    private BufferedWriter out;
+    private long recordsInLog = 0;
+
+    // All guarded by 'this'; readers use the immutable views below
+    private final Map<String, Connection> byUser = new LinkedHashMap<>();
+    private final Map<String, Set<String>> usersByProject = new HashMap<>();
+    private final Map<String, Set<String>> usersByHost = new HashMap<>();
+
+    // Recipients per project key, rebuilt lazily after a change
+    private volatile Map<String, List<Connection>> recipientsByProject = Map.of();
+    private volatile List<Connection> allSubscribers = List.of();
+
+    @PostConstruct
+    public void load() {
+        logFile = Path.of(stateDir, "subscribers.log");
+        long start = System.currentTimeMillis();
+        try {
+            if (Files.exists(logFile)) {
+                for (String line : Files.readAllLines(logFile, StandardCharsets.UTF_8)) {
+                    replay(line);
+                    recordsInLog++;
+                }
+            }
+            compact();
+        } catch (IOException e) {
+            System.err.println("❌ Subscriber registry load failed: " + e.getMessage());
+        }
+        System.out.println("👥 Loaded " + byUser.size() + " subscriber(s) in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (out != null) out.close();
+        } catch (IOException ignored) { }
+    }
+
+    // --- REGISTRY API ---
+
+    public synchronized void register(Connection connection) {
+        write("+\t" + connection.getUserId() + "\t" + connection.getWebhookUrl() + "\t"
+                + (connection.getProjectKey() == null ? ALL_PROJECTS : connection.getProjectKey()));
+        put(connection);
+        compactIfBloated();
+    }
+
+    public synchronized Connection remove(String userId) {
+        if (!byUser.containsKey(userId)) return null;
+        write("-\t" + userId);
+        Connection removed = delete(userId);
+        compactIfBloated();
+        return removed;
+    }
+
+    public synchronized Connection get(String userId) {
+        return byUser.get(userId);
+    }
+
+    public boolean isEmpty() {
+        return allSubscribers.isEmpty();
+    }
+
+    public List<Connection> getAll() {
+        return allSubscribers;
+    }
+
+    // Everyone who should get a broadcast for this project
+    public List<Connection> subscribersFor(MonitoredProject project) {
+        List<Connection> recipients = recipientsByProject.get(project.getKey());
+        if (recipients == null) recipients = cacheRecipients(project.getKey());
+        return recipients;
+    }
+
+    // Subscribers whose webhook points at this host
+    public synchronized List<Connection> findByHost(String host) {
+        List<Connection> result = new ArrayList<>();
+        for (String userId : usersByHost.getOrDefault(host.toLowerCase(), Set.of())) result.add(byUser.get(userId));
+        return result;
+    }
+
+    public synchronized List<String> hosts() {
+        return new ArrayList<>(usersByHost.keySet());
+    }
+
+    // --- INDEXES ---
+
+    private void put(Connection connection) {
+        delete(connection.getUserId());
+        byUser.put(connection.getUserId(), connection);
+        String projectKey = connection.getProjectKey() == null ? ALL_PROJECTS : connection.getProjectKey();
+        usersByProject.computeIfAbsent(projectKey, key -> new LinkedHashSet<>()).add(connection.getUserId());
+        usersByHost.computeIfAbsent(hostOf(connection.getWebhookUrl()), key -> new LinkedHashSet<>()).add(connection.getUserId());
+        invalidate();
+    }
+
+    private Connection delete(String userId) {
+        Connection previous = byUser.remove(userId);
+        if (previous == null) return null;
+        String projectKey = previous.getProjectKey() == null ? ALL_PROJECTS : previous.getProjectKey();
+        removeFromIndex(usersByProject, projectKey, userId);
+        removeFromIndex(usersByHost, hostOf(previous.getWebhookUrl()), userId);
+        invalidate();
+        return previous;
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String userId) {
+        Set<String> users = index.get(key);
+        if (users == null) return;
+        users.remove(userId);
+        if (users.isEmpty()) index.remove(key);
+    }
+
+    private void invalidate() {
+        recipientsByProject = Map.of();
+        allSubscribers = List.copyOf(byUser.values());
+    }
+
+    private synchronized List<Connection> cacheRecipients(String projectKey) {
+        List<Connection> recipients = new ArrayList<>();
+        for (String userId : usersByProject.getOrDefault(projectKey, Set.of())) recipients.add(byUser.get(userId));
+        for (String userId : usersByProject.getOrDefault(ALL_PROJECTS, Set.of())) recipients.add(byUser.get(userId));
+        List<Connection> frozen = List.copyOf(recipients);
+
+        Map<String, List<Connection>> updated = new HashMap<>(recipientsByProject);
+        updated.put(projectKey, frozen);
+        recipientsByProject = updated;
+        return frozen;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    // --- LOG ---
+
+    private void replay(String line) {
+        String[] parts = line.split("\t");
+        if (parts.length == 4 && parts[0].equals("+")) {
+            put(new Connection(parts[1], parts[2], ALL_PROJECTS.equals(parts[3]) ? null : parts[3]));
+        } else if (parts.length == 2 && parts[0].equals("-")) {
+            delete(parts[1]);
+        }
+        // Anything else is a line torn by a crash; skip it
+    }
+
+    private void write(String line) {
+        if (out == null) {
+            System.err.println("❌ Subscriber log unavailable, change kept in memory only");
+            return;
+        }
+        try {
+            out.write(line);
+            out.newLine();
+            out.flush();
+            recordsInLog++;
+        } catch (IOException e) {
+            System.err.println("❌ Could not persist subscriber change: " + e.getMessage());
+        }
+    }
+
+    // Called once a change is applied, so the rewrite includes it
+    private void compactIfBloated() {
+        if (recordsInLog <= MIN_COMPACTION_RECORDS || recordsInLog <= 2L * byUser.size()) return;
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("❌ Subscriber log compaction failed: " + e.getMessage());
+        }
+    }
+
+    // Rewrites the log as one line per live subscriber, then swaps it in atomically
+    private synchronized void compact() throws IOException {
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        Path tmp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        if (logFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        try (BufferedWriter snapshot = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Connection connection : byUser.values()) {
+                snapshot.write("+\t" + connection.getUserId() + "\t" + connection.getWebhookUrl() + "\t"
+                        + (connection.getProjectKey() == null ? ALL_PROJECTS : connection.getProjectKey()));
+                snapshot.newLine();
+            }
+        }
+        if (out != null) out.close();
+        try {
+            Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            recordsInLog = byUser.size();
+        } finally {
+            // Keep appending either way: to the compacted log, or to the old one if the swap failed
+            out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+}
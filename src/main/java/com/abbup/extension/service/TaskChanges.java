@@ -0,0 +1,9 @@
+package com.abbup.extension.service;
+
+import java.util.List;
+
+import com.abbup.extension.model.ZohoTask;
+
+// What changed in a project's task store between two versions.
+public record TaskChanges(long version, List<ZohoTask> upserted, List<Long> removed) {
+}
@@ -0,0 +1,19 @@
+package com.abbup.extension.service;
+
+import java.util.List;
+import java.util.Map;
+
+// Everything the bot reports show, computed in one pass over a snapshot for one day.
+// Rows are keyed by the report table headers.
+public record TaskReport(long version, long day, int totalOpen, int highPriority, int overdue, int atRisk,
+        List<Map<String, String>> criticalRows, List<Map<String, String>> allRows) {
+
+    // The task list could not be loaded; reports say so instead of showing zeros
+    public static TaskReport unavailable(long day) {
+        return new TaskReport(-1, day, 0, 0, 0, 0, List.of(), List.of());
+    }
+
+    public boolean isAvailable() {
+        return version >= 0;
+    }
+}
@@ -0,0 +1,157 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.MonitoredProject;
+import com.abbup.extension.model.ZohoTask;
+
+// Token index over task name, owner, status and priority for /search, one per project.
+// Tokens are lower-cased words kept in sorted order, so every query term matches as a prefix
+// via a range scan, and multi-term queries intersect the matches. The index follows the task
+// store's change journal: a search only takes the write lock when the store has moved on, and
+// then applies just what changed; otherwise searches share the read lock.
+@Service
+public class TaskSearchIndex {
+
+    @Autowired
+    private TaskSnapshotCache taskSnapshotCache;
+
+    @Autowired
+    private ZohoApiService zohoApiService;
+
+    private final Map<String, ProjectIndex> indexes = new ConcurrentHashMap<>();
+
+    private static class ProjectIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+        final Map<Long, ZohoTask> tasks = new HashMap<>();
+        final Map<Long, String[]> tokensById = new HashMap<>();
+        // Store version the index reflects; -1 until the first build. Written under the write lock.
+        volatile long version = -1;
+    }
+
+    // Up to 'limit' tasks matching every term of the query, soonest due first
+    public List<ZohoTask> search(MonitoredProject project, String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) return List.of();
+
+        ProjectIndex index = indexes.computeIfAbsent(project.getKey(), key -> new ProjectIndex());
+        // Outside any lock: may wait for Zoho on a cold cache, and keeps the store refreshing in the background
+        TaskSnapshot snapshot = taskSnapshotCache.get(project);
+        if (index.version < 0) rebuild(project, index, snapshot);
+        else if (index.version < zohoApiService.storeVersion(project)) catchUp(project, index);
+
+        index.lock.readLock().lock();
+        try {
+            Set<Long> matches = null;
+            for (String term : terms) {
+                Set<Long> termMatches = prefixMatches(index, term);
+                if (matches == null) matches = termMatches;
+                else matches.retainAll(termMatches);
+                if (matches.isEmpty()) return List.of();
+            }
+
+            List<ZohoTask> results = new ArrayList<>(matches.size());
+            for (Long id : matches) results.add(index.tasks.get(id));
+            results.sort(Comparator.comparingInt((ZohoTask task) -> task.hasDueDate() ? task.dueEpochDay() : Integer.MAX_VALUE)
+                    .thenComparingLong(ZohoTask::id));
+            return results.size() > limit ? results.subList(0, limit) : results;
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    private static Set<Long> prefixMatches(ProjectIndex index, String prefix) {
+        Set<Long> ids = new HashSet<>();
+        SortedMap<String, Set<Long>> range = index.postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Set<Long> posting : range.values()) ids.addAll(posting);
+        return ids;
+    }
+
+    // --- MAINTENANCE ---
+
+    private void rebuild(MonitoredProject project, ProjectIndex index, TaskSnapshot snapshot) {
+        index.lock.writeLock().lock();
+        try {
+            // Another search may have built it while we waited for the lock
+            if (index.version >= 0) return;
+            fill(index, snapshot);
+            System.out.println("🔎 Indexed " + index.tasks.size() + " tasks for '" + project.getName() + "'");
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    // Applies just the changed and removed tasks; falls back to the store's current snapshot
+    // when the journal no longer reaches back to the index's version
+    private void catchUp(MonitoredProject project, ProjectIndex index) {
+        index.lock.writeLock().lock();
+        try {
+            TaskChanges changes = zohoApiService.changesSince(project, index.version);
+            if (changes == null) {
+                fill(index, zohoApiService.storedSnapshot(project));
+                return;
+            }
+            for (Long removedId : changes.removed()) remove(index, removedId);
+            for (ZohoTask task : changes.upserted()) {
+                remove(index, task.id());
+                add(index, task);
+            }
+            index.version = changes.version();
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    private static void fill(ProjectIndex index, TaskSnapshot snapshot) {
+        index.postings.clear();
+        index.tasks.clear();
+        index.tokensById.clear();
+        for (ZohoTask task : snapshot.tasks()) add(index, task);
+        index.version = snapshot.version();
+    }
+
+    private static void add(ProjectIndex index, ZohoTask task) {
+        String[] tokens = tokenize(task.name(), task.owner(), task.status(), task.priority());
+        index.tasks.put(task.id(), task);
+        index.tokensById.put(task.id(), tokens);
+        for (String token : tokens) index.postings.computeIfAbsent(token, t -> new HashSet<>()).add(task.id());
+    }
+
+    private static void remove(ProjectIndex index, long taskId) {
+        index.tasks.remove(taskId);
+        String[] tokens = index.tokensById.remove(taskId);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            Set<Long> posting = index.postings.get(token);
+            if (posting == null) continue;
+            posting.remove(taskId);
+            if (posting.isEmpty()) index.postings.remove(token);
+        }
+    }
+
+    // Lower-cased words (letters and digits) of the non-null fields, de-duplicated
+    private static String[] tokenize(String... fields) {
+        Set<String> tokens = new HashSet<>();
+        for (String field : fields) {
+            if (field == null) continue;
+            for (String word : field.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) tokens.add(word);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,19 @@
+package com.abbup.extension.service;
+
+import java.util.List;
+
+import com.abbup.extension.model.ZohoTask;
+
+// Immutable view of the project's tasks. The version changes whenever the underlying store does.
+public record TaskSnapshot(long version, List<ZohoTask> tasks) {
+
+    // Stands in for a project whose tasks could not be loaded yet, so callers can tell
+    // "Zoho was unreachable" apart from "no tasks"; never cached
+    public static TaskSnapshot unavailable() {
+        return new TaskSnapshot(-1, List.of());
+    }
+
+    public boolean isAvailable() {
+        return version >= 0;
+    }
+}
@@ -0,0 +1,115 @@
+package com.abbup.extension.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.MonitoredProject;
+
+// One shared copy of each project's task list for the scheduler and every bot command.
+// Concurrent misses join the same in-flight load instead of each calling Zoho.
+@Service
+public class TaskSnapshotCache {
+
+    @Autowired
+    private ZohoApiService zohoApiService;
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+    @Autowired
+    private ProjectRegistry projectRegistry;
+
+    @Value("${deadlineguard.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    @Value("${deadlineguard.cache.max-stale-seconds:900}")
+    private long maxStaleSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Loads block on Zoho, so they get virtual threads rather than the common ForkJoinPool
+    // (which ReportAggregator's parallel passes need for CPU work)
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static class Entry {
+        volatile TaskSnapshot current = null;
+        volatile long loadedAt = 0;
+        final AtomicReference<CompletableFuture<TaskSnapshot>> inFlight = new AtomicReference<>();
+    }
+
+    private Entry entryFor(MonitoredProject project) {
+        return entries.computeIfAbsent(project.getKey(), key -> new Entry());
+    }
+
+    public TaskSnapshot get() {
+        return get(projectRegistry.getDefault());
+    }
+
+    // Fresh snapshot: served from memory. Past its TTL but not too stale: served from memory
+    // while a background reload runs. Missing or too old: the caller waits for the load.
+    public TaskSnapshot get(MonitoredProject project) {
+        Entry entry = entryFor(project);
+        TaskSnapshot snapshot = entry.current;
+        long age = System.currentTimeMillis() - entry.loadedAt;
+
+        if (snapshot != null && age < ttlSeconds * 1000L) return withLocalChanges(project, entry, snapshot);
+        if (snapshot != null && age < maxStaleSeconds * 1000L) {
+            refresh(project);
+            return withLocalChanges(project, entry, snapshot);
+        }
+        return refresh(project).join();
+    }
+
+    // Webhooks update the store between loads without building a snapshot; the first read after
+    // a change builds it once, and every other reader shares it until the store moves again.
+    private TaskSnapshot withLocalChanges(MonitoredProject project, Entry entry, TaskSnapshot snapshot) {
+        if (zohoApiService.storeVersion(project) == snapshot.version()) return snapshot;
+        synchronized (entry) {
+            TaskSnapshot latest = entry.current;
+            if (zohoApiService.storeVersion(project) != latest.version()) {
+                latest = zohoApiService.storedSnapshot(project);
+                entry.current = latest;
+            }
+            return latest;
+        }
+    }
+
+    // Starts a reload unless one is already running, in which case its future is shared.
+    public CompletableFuture<TaskSnapshot> refresh(MonitoredProject project) {
+        Entry entry = entryFor(project);
+        CompletableFuture<TaskSnapshot> pending = new CompletableFuture<>();
+        CompletableFuture<TaskSnapshot> existing = entry.inFlight.compareAndExchange(null, pending);
+        if (existing != null) return existing;
+
+        // The load runs on another thread, so it takes the caller's API priority with it
+        ZohoRateLimiter.Priority priority = rateLimiter.currentPriority();
+        CompletableFuture.runAsync(() -> rateLimiter.runWithPriority(priority, () -> {
+            try {
+                TaskSnapshot loaded = zohoApiService.syncTasks(project);
+                // A first load that failed is not cached, so the next reader tries again
+                if (loaded.isAvailable()) {
+                    entry.current = loaded;
+                    entry.loadedAt = System.currentTimeMillis();
+                }
+                pending.complete(loaded);
+            } catch (Exception e) {
+                System.err.println("❌ Snapshot Refresh Failed (" + project.getName() + "): " + e.getMessage());
+                // Fall back to whatever we had; with nothing loaded yet, say so rather than "no tasks"
+                TaskSnapshot fallback = entry.current;
+                pending.complete(fallback != null ? fallback : TaskSnapshot.unavailable());
+            } finally {
+                entry.inFlight.set(null);
+            }
+        }), loadExecutor);
+        return pending;
+    }
+
+    public long getVersion(MonitoredProject project) {
+        TaskSnapshot snapshot = entryFor(project).current;
+        return (snapshot == null) ? 0 : snapshot.version();
+    }
+}
@@ -0,0 +1,189 @@
+package com.abbup.extension.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.abbup.extension.model.ZohoTask;
+
+// Local copy of a project's tasks, kept current by ZohoApiService.syncTasks().
+// The watermark is the newest 'last_modified_time' seen, used to ask Zoho for changes only.
+// A bounded journal of (version, taskId) lets consumers fetch just what changed since a version.
+// Webhook events and syncs race, so a copy older (by last_modified_time) than the one held never
+// replaces it, and a full sync leaves alone whatever webhooks changed after it started.
+public class TaskStore {
+
+    private static final int JOURNAL_LIMIT = 100_000;
+    private static final long DELTA_OVERLAP_MILLIS = 5_000;
+
+    private final Map<Long, ZohoTask> tasks = new ConcurrentHashMap<>();
+    private volatile long watermark = 0;
+    private volatile long lastFullSyncTime = 0;
+    // Bumped on every change so readers can tell whether a snapshot is still current
+    private long version = 0;
+
+    private final ArrayDeque<long[]> journal = new ArrayDeque<>();
+    // changesSince(v) can only answer for v >= journalFloor
+    private long journalFloor = 0;
+
+    // Version of the latest webhook change per task, kept until no full sync can predate it
+    private final Map<Long, Long> webhookChanges = new HashMap<>();
+
+    public boolean isFullSyncDue(long intervalMinutes) {
+        return watermark == 0 || System.currentTimeMillis() - lastFullSyncTime >= intervalMinutes * 60000L;
+    }
+
+    // Full reconciliation against a list fetched after version 'startedAt'. Only tasks that
+    // actually differ (or vanished) are journalled, so an hourly full sync does not look like
+    // every task changed. Tasks a webhook touched since 'startedAt' keep their newer local state.
+    public synchronized void replaceAll(List<ZohoTask> freshTasks, long startedAt) {
+        long next = version + 1;
+        boolean changed = false;
+        Set<Long> seen = new HashSet<>(freshTasks.size() * 2);
+        long newest = 0;
+
+        for (ZohoTask task : freshTasks) {
+            seen.add(task.id());
+            newest = Math.max(newest, task.lastModified());
+            ZohoTask current = tasks.get(task.id());
+            if (isOlder(task, current)) continue;
+            // Deleted by a webhook while the pages were in flight, or updated with the same edit
+            if (changedByWebhookSince(task.id(), startedAt) && (current == null || current.lastModified() >= task.lastModified())) continue;
+            tasks.put(task.id(), task);
+            if (!task.equals(current)) {
+                record(next, task.id());
+                changed = true;
+            }
+        }
+        Iterator<Long> ids = tasks.keySet().iterator();
+        while (ids.hasNext()) {
+            Long id = ids.next();
+            // A task created by a webhook after the fetch began is not missing, just new
+            if (!seen.contains(id) && !changedByWebhookSince(id, startedAt)) {
+                ids.remove();
+                record(next, id);
+                changed = true;
+            }
+        }
+        webhookChanges.values().removeIf(atVersion -> atVersion <= startedAt);
+
+        // Keep a usable watermark even when Zoho omits last_modified_time
+        watermark = (newest != 0) ? newest : System.currentTimeMillis();
+        lastFullSyncTime = System.currentTimeMillis();
+        if (changed) version = next;
+    }
+
+    // Applies a whole delta fetch issued with deltaWindowStart() == since. Pages arrive in any
+    // order, so everything is filtered against that one starting point; tasks older than it, or
+    // identical to what we hold (the overlap window re-reads a few), are skipped. The watermark
+    // only moves when every page arrived, otherwise the next delta asks for the same window again.
+    public synchronized int upsertChanged(List<ZohoTask> delta, long since, boolean complete) {
+        long newest = watermark;
+        long next = version + 1;
+        int changed = 0;
+        for (ZohoTask task : delta) {
+            long modified = task.lastModified();
+            if (modified != 0 && modified < since) continue;
+            newest = Math.max(newest, modified);
+            ZohoTask previous = tasks.get(task.id());
+            if (task.equals(previous) || isOlder(task, previous)) continue;
+            tasks.put(task.id(), task);
+            record(next, task.id());
+            changed++;
+        }
+        if (complete) watermark = newest;
+        if (changed > 0) version = next;
+        return changed;
+    }
+
+    // Single-task updates from webhooks. The watermark is left alone so the next delta sync
+    // still picks up anything else that changed before this event. Returns false, changing
+    // nothing, when a newer copy of the task is already held (events processed out of order).
+    public synchronized boolean upsert(ZohoTask task) {
+        if (isOlder(task, tasks.get(task.id()))) return false;
+        version++;
+        tasks.put(task.id(), task);
+        record(version, task.id());
+        webhookChanges.put(task.id(), version);
+        return true;
+    }
+
+    public synchronized void remove(long taskId) {
+        if (tasks.remove(taskId) != null) {
+            version++;
+            record(version, taskId);
+            webhookChanges.put(taskId, version);
+        }
+    }
+
+    // Whether a full sync has ever completed
+    public boolean hasLoaded() {
+        return lastFullSyncTime != 0;
+    }
+
+    public ZohoTask get(long taskId) {
+        return tasks.get(taskId);
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized TaskSnapshot snapshot() {
+        return new TaskSnapshot(version, List.copyOf(tasks.values()));
+    }
+
+    // Tasks upserted or removed after the given version, or null if the journal no longer
+    // reaches back that far (the caller should then re-read everything).
+    public synchronized TaskChanges changesSince(long sinceVersion) {
+        if (sinceVersion < journalFloor) return null;
+
+        Set<Long> ids = new LinkedHashSet<>();
+        Iterator<long[]> newestFirst = journal.descendingIterator();
+        while (newestFirst.hasNext()) {
+            long[] entry = newestFirst.next();
+            if (entry[0] <= sinceVersion) break;
+            ids.add(entry[1]);
+        }
+
+        List<ZohoTask> upserted = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Long id : ids) {
+            ZohoTask task = tasks.get(id);
+            if (task != null) upserted.add(task);
+            else removed.add(id);
+        }
+        return new TaskChanges(version, upserted, removed);
+    }
+
+    // Where the next delta fetch should start: a little before the watermark, so edits that share
+    // its millisecond (or were committed just after it was read) are not lost
+    public long deltaWindowStart() {
+        long current = watermark;
+        return (current == 0) ? 0 : current - DELTA_OVERLAP_MILLIS;
+    }
+
+    // Both timestamps must be known; Zoho omits last_modified_time on some task types
+    private static boolean isOlder(ZohoTask candidate, ZohoTask current) {
+        return current != null && candidate.lastModified() != 0 && candidate.lastModified() < current.lastModified();
+    }
+
+    private boolean changedByWebhookSince(long taskId, long sinceVersion) {
+        Long atVersion = webhookChanges.get(taskId);
+        return atVersion != null && atVersion > sinceVersion;
+    }
+
+    private void record(long atVersion, long taskId) {
+        journal.addLast(new long[] { atVersion, taskId });
+        if (journal.size() > JOURNAL_LIMIT) {
+            journalFloor = journal.pollFirst()[0];
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.abbup.extension.service;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.abbup.extension.model.MonitoredProject;
+import com.abbup.extension.model.ZohoTask;
+
+// Applies Zoho Projects task webhooks to the local task state and re-checks just that task.
+// The store's version moves on, and TaskSnapshotCache readers pull the new state when they next ask.
+@Service
+public class WebhookIngestService {
+
+    @Autowired
+    private ZohoApiService zohoApiService;
+    @Autowired
+    private AlertScheduler alertScheduler;
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+    @Autowired
+    private ProjectRegistry projectRegistry;
+
+    private final ExecutorService eventExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Returns false if the payload does not identify a task in a monitored project
+    public boolean accept(Map<String, Object> payload) {
+        String taskId = extractTaskId(payload);
+        MonitoredProject project = resolveProject(payload);
+        if (taskId == null || project == null || !taskId.chars().allMatch(Character::isDigit)) return false;
+
+        boolean deleted = isDeleteEvent(payload);
+        alertScheduler.onWebhookReceived(project);
+        eventExecutor.submit(() -> rateLimiter.runInBackground(() -> process(project, taskId, deleted)));
+        return true;
+    }
+
+    private void process(MonitoredProject project, String taskId, boolean deleted) {
+        try {
+            if (deleted) {
+                System.out.println("🗑️ Webhook: task " + taskId + " deleted");
+                zohoApiService.applyTaskRemoval(project, Long.parseLong(taskId));
+                alertScheduler.onTaskRemoved(project, Long.parseLong(taskId));
+                return;
+            }
+
+            // Webhook bodies are user-defined in Zoho, so fetch the authoritative task state
+            ZohoTask task = zohoApiService.getTask(project, taskId);
+            if (task == null) return;
+
+            // Two events for one task can finish in either order; the older fetch must not win
+            if (!zohoApiService.applyTaskUpdate(project, task)) {
+                System.out.println("⏭️ Webhook: task " + taskId + " already newer locally");
+                return;
+            }
+            System.out.println("📬 Webhook: task " + taskId + " changed");
+            alertScheduler.onTaskChanged(project, task);
+        } catch (Exception e) {
+            System.err.println("❌ Webhook Processing Failed: " + e.getMessage());
+        }
+    }
+
+    // Events without project ids belong to the default project; unknown projects are rejected
+    private MonitoredProject resolveProject(Map<String, Object> payload) {
+        Object projectId = payload.get("project_id");
+        if (projectId == null && payload.get("project") instanceof Map<?, ?> project) projectId = project.get("id");
+        if (projectId == null) return projectRegistry.getDefault();
+
+        Object portalId = payload.get("portal_id");
+        return projectRegistry.findByIds(portalId == null ? null : String.valueOf(portalId), String.valueOf(projectId));
+    }
+
+    private String extractTaskId(Map<String, Object> payload) {
+        for (String key : new String[] { "task_id", "taskId", "id" }) {
+            Object value = payload.get(key);
+            if (value != null && !String.valueOf(value).isBlank()) return String.valueOf(value).trim();
+        }
+        if (payload.get("task") instanceof Map<?, ?> task && task.get("id") != null) {
+            return String.valueOf(task.get("id"));
+        }
+        return null;
+    }
+
+    private boolean isDeleteEvent(Map<String, Object> payload) {
+        for (String key : new String[] { "event", "event_type", "operation", "action" }) {
+            Object value = payload.get(key);
+            if (value != null && String.valueOf(value).toLowerCase().contains("delete")) return true;
+        }
+        return false;
+    }
+}
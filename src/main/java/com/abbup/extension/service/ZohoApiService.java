@@ -1,8 +1,16 @@
 package com.abbup.extension.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,119 +22,265 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import com.abbup.extension.model.MonitoredProject;
+import com.abbup.extension.model.ZohoTask;
+import com.abbup.extension.service.ZohoTaskJson.TaskListResponse;
+import com.abbup.extension.service.ZohoRateLimiter.Priority;
+
 @Service
 public class ZohoApiService {
 
     @Autowired
     private RestTemplate restTemplate;
+    @Autowired
+    private ZohoTokenManager tokenManager;
+    @Autowired
+    private ZohoRateLimiter rateLimiter;
+    @Autowired
+    private ProjectRegistry projectRegistry;
 
-    @Value("${zoho.client.id}")
-    private String clientId;
-    @Value("${zoho.client.secret}")
-    private String clientSecret;
-    @Value("${zoho.refresh.token}")
-    private String refreshToken;
-    @Value("${zoho.portal.id}")
-    private String portalId;
-    @Value("${zoho.project.id}")
-    private String projectId;
-
-    // Token Cache
-    private String cachedAccessToken = null;
-    private long tokenExpiryTime = 0;
+    @Value("${zoho.tasks.page-size:100}")
+    private int pageSize;
+    @Value("${zoho.tasks.parallelism:4}")
+    private int pageParallelism;
+    @Value("${zoho.sync.full-interval-minutes:60}")
+    private long fullSyncIntervalMinutes;
+    @Value("${zoho.ratelimit.max-retries:3}")
+    private int maxRetries;
 
-    private String getAccessToken() {
-        // Check Cache (5 min buffer)
-        if (cachedAccessToken != null && System.currentTimeMillis() < (tokenExpiryTime - 300000)) {
-            return cachedAccessToken;
-        }
+    // One local task store per monitored project
+    private final Map<String, TaskStore> taskStores = new ConcurrentHashMap<>();
 
-        System.out.println("🔄 Generating NEW Access Token...");
-        String url = "https://accounts.zoho.com/oauth/v2/token";
+    // Page fetches run on virtual threads; the parallelism cap bounds how many are in flight
+    private final ExecutorService pageExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-        MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
-        map.add("refresh_token", refreshToken);
-        map.add("client_id", clientId);
-        map.add("client_secret", clientSecret);
-        map.add("grant_type", "refresh_token");
+    // Tokens are refreshed ahead of expiry in the background; see ZohoTokenManager
+    private String getAccessToken() {
+        return tokenManager.getAccessToken();
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(map, headers);
+    private TaskStore storeFor(MonitoredProject project) {
+        return taskStores.computeIfAbsent(project.getKey(), key -> new TaskStore());
+    }
 
+    // Every Zoho Projects call goes through the shared budget; 429s back off and retry.
+    // A 401 means Zoho revoked the token early: the request is rebuilt with a fresh token and
+    // sent once more, so 'request' must take the token rather than capture one.
+    private <T> T callZoho(Priority priority, String token, Function<String, T> request) {
         try {
-            Map response = restTemplate.postForObject(url, request, Map.class);
-            if (response != null && response.containsKey("access_token")) {
-                this.cachedAccessToken = (String) response.get("access_token");
-                int expiresIn = Integer.parseInt(String.valueOf(response.get("expires_in")));
-                this.tokenExpiryTime = System.currentTimeMillis() + (expiresIn * 1000L);
-                return this.cachedAccessToken;
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Token Error: " + e.getMessage());
+            return rateLimiter.call(priority, maxRetries, () -> request.apply(token));
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode().value() != 401) throw e;
+            System.err.println("🔑 Zoho rejected the access token, refreshing");
+            String fresh = tokenManager.invalidate(token);
+            if (fresh == null) throw e;
+            return rateLimiter.call(priority, maxRetries, () -> request.apply(fresh));
         }
-        return null;
     }
 
-    public void updateTaskPriority(String taskId, String newPriority) {
-        String token = getAccessToken();
-        if (token == null) return;
-
-        // Using the RESTAPI (V1) endpoint as it proved stable for your account
-        String url = "https://projectsapi.zoho.com/restapi/portal/" + portalId + 
-                     "/projects/" + projectId + "/tasks/" + taskId + "/";
-
+    private static HttpHeaders authorized(String token) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + token);
+        return headers;
+    }
+
+    private static HttpEntity<MultiValueMap<String, String>> formRequest(MultiValueMap<String, String> body, String token) {
+        HttpHeaders headers = authorized(token);
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        return new HttpEntity<>(body, headers);
+    }
+
+    // Returns whether Zoho accepted the update
+    public boolean updateTaskPriority(MonitoredProject project, String taskId, String newPriority) {
+        String token = getAccessToken();
+        if (token == null) return false;
+
+        // Using the RESTAPI (V1) endpoint as it proved stable for your account
+        String url = "https://projectsapi.zoho.com/restapi/portal/" + project.getPortalId() + 
+                     "/projects/" + project.getProjectId() + "/tasks/" + taskId + "/";
 
         MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
         body.add("priority", newPriority);
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
-
         try {
-            restTemplate.postForObject(url, request, String.class);
+            callZoho(rateLimiter.currentPriority(), token, t -> restTemplate.postForObject(url, formRequest(body, t), String.class));
             System.out.println("✅ Successfully updated Task " + taskId + " to " + newPriority);
+            return true;
+        } catch (ZohoBudgetExhaustedException e) {
+            // Callers tell the user to retry later instead of reporting a generic failure
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ Update Failed: " + e.getMessage());
+            return false;
         }
     }
 
-    public List<Map<String, Object>> getTasks() {
+    // Incremental sync: between full reconciliations only tasks modified after the store's
+    // watermark are pulled. The full pass replaces the store so deleted tasks drop out.
+    public TaskSnapshot syncTasks(MonitoredProject project) {
+        TaskStore store = storeFor(project);
+        if (store.isFullSyncDue(fullSyncIntervalMinutes)) {
+            // Webhooks applied after this point win over the pages fetched below
+            long startedAt = store.version();
+            List<ZohoTask> allTasks = new ArrayList<>();
+            if (streamTasks(project, null, allTasks::addAll)) {
+                store.replaceAll(allTasks, startedAt);
+                System.out.println("🔁 Full task sync (" + project.getName() + "): " + allTasks.size() + " tasks");
+            } else if (!store.hasLoaded()) {
+                // Nothing to fall back on; an empty store would read as "no tasks"
+                return TaskSnapshot.unavailable();
+            }
+        } else {
+            // Buffer the whole delta: pages complete out of order, and a failed page must not move the watermark
+            long since = store.deltaWindowStart();
+            String filter = (since == 0) ? null : "last_modified_time=" + Instant.ofEpochMilli(since);
+            List<ZohoTask> delta = new ArrayList<>();
+            boolean complete = streamTasks(project, filter, delta::addAll);
+            int changed = store.upsertChanged(delta, since, complete);
+            if (changed > 0) System.out.println("🔄 Delta sync (" + project.getName() + "): " + changed + " changed tasks");
+            if (!complete) System.err.println("⚠️ Delta sync (" + project.getName() + ") incomplete, will retry the same window");
+        }
+        return store.snapshot();
+    }
+
+    // Returns false if the store already holds a newer copy of the task. Readers pick the change
+    // up through TaskSnapshotCache, which compares versions, so no snapshot is built here.
+    public boolean applyTaskUpdate(MonitoredProject project, ZohoTask task) {
+        return storeFor(project).upsert(task);
+    }
+
+    public void applyTaskRemoval(MonitoredProject project, long taskId) {
+        storeFor(project).remove(taskId);
+    }
+
+    // Local reads only; no Zoho call
+    public long storeVersion(MonitoredProject project) {
+        return storeFor(project).version();
+    }
+
+    public TaskSnapshot storedSnapshot(MonitoredProject project) {
+        return storeFor(project).snapshot();
+    }
+
+    public TaskChanges changesSince(MonitoredProject project, long sinceVersion) {
+        return storeFor(project).changesSince(sinceVersion);
+    }
+
+    // Local lookup only; no Zoho call
+    public ZohoTask findStoredTask(MonitoredProject project, long taskId) {
+        return storeFor(project).get(taskId);
+    }
+
+    public ZohoTask getTask(MonitoredProject project, String taskId) {
         String token = getAccessToken();
-        if (token == null) return Collections.emptyList();
+        if (token == null) return null;
 
-        String url = "https://projectsapi.zoho.com/api/v3/portal/" + portalId + "/projects/" + projectId + "/tasks";
+        String url = "https://projectsapi.zoho.com/api/v3/portal/" + project.getPortalId() + "/projects/" + project.getProjectId() + "/tasks/" + taskId;
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + token);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+        try {
+            // The single-task endpoint wraps the task in a one-element 'tasks' list
+            ResponseEntity<TaskListResponse> response = callZoho(rateLimiter.currentPriority(), token,
+                    t -> restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(authorized(t)), TaskListResponse.class));
+            TaskListResponse body = response.getBody();
+            if (body == null) return null;
+            List<ZohoTask> tasks = body.toTasks();
+            return tasks.isEmpty() ? null : tasks.get(0);
+        } catch (Exception e) {
+            System.err.println("❌ Fetch Error (task " + taskId + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Reads every page of the task list and hands each page to the consumer as soon as it arrives.
+    // Page 1 is fetched alone (most projects fit in it); later pages go out in windows of
+    // 'zoho.tasks.parallelism' concurrent requests until Zoho reports no further page.
+    // Returns false if any page failed, so callers know the result is partial. syncTasks is the
+    // only caller and collects the pages: a full sync needs the whole list to spot removals.
+    private boolean streamTasks(MonitoredProject project, String filterQuery, Consumer<List<ZohoTask>> pageConsumer) {
+        String token = getAccessToken();
+        if (token == null) return false;
+
+        // Page threads don't inherit the caller's priority, so carry it explicitly
+        Priority priority = rateLimiter.currentPriority();
+        TaskPage first = fetchTaskPage(project, token, 1, filterQuery, priority);
+        if (first == null) return false;
+        if (!first.tasks().isEmpty()) pageConsumer.accept(first.tasks());
+
+        int nextPage = 2;
+        boolean hasMore = first.hasNext();
+        boolean complete = true;
+        int window = Math.max(1, pageParallelism);
+
+        while (hasMore) {
+            List<CompletableFuture<TaskPage>> inFlight = new ArrayList<>();
+            for (int i = 0; i < window; i++) {
+                int page = nextPage + i;
+                inFlight.add(CompletableFuture.supplyAsync(() -> fetchTaskPage(project, token, page, filterQuery, priority), pageExecutor)
+                        .whenComplete((result, error) -> {
+                            if (result != null && !result.tasks().isEmpty()) {
+                                // Serialise delivery so consumers never see two pages at once
+                                synchronized (pageConsumer) {
+                                    pageConsumer.accept(result.tasks());
+                                }
+                            }
+                        }));
+            }
+            nextPage += window;
+
+            hasMore = true;
+            for (CompletableFuture<TaskPage> future : inFlight) {
+                TaskPage result = future.join();
+                // A failed or final page ends the walk; later pages in this window are simply empty
+                if (result == null) complete = false;
+                if (result == null || !result.hasNext()) hasMore = false;
+            }
+        }
+        return complete;
+    }
+
+    private TaskPage fetchTaskPage(MonitoredProject project, String token, int page, String filterQuery, Priority priority) {
+        String url = "https://projectsapi.zoho.com/api/v3/portal/" + project.getPortalId() + "/projects/" + project.getProjectId() +
+                     "/tasks?page=" + page + "&per_page=" + pageSize;
+        if (filterQuery != null) url += "&" + filterQuery;
 
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
-            Map<String, Object> body = response.getBody();
-            if (body != null && body.containsKey("tasks")) {
-                return (List<Map<String, Object>>) body.get("tasks");
+            String pageUrl = url;
+            // Decoded straight from the response stream into typed records; no Map tree is built
+            ResponseEntity<TaskListResponse> response = callZoho(priority, token,
+                    t -> restTemplate.exchange(pageUrl, HttpMethod.GET, new HttpEntity<>(authorized(t)), TaskListResponse.class));
+            TaskListResponse body = response.getBody();
+            if (body == null || body.tasks() == null) return new TaskPage(Collections.emptyList(), false);
+
+            List<ZohoTask> tasks = body.toTasks();
+            boolean hasNext = false;
+            if (body.pageInfo() != null && body.pageInfo().hasNextPage() != null) {
+                hasNext = body.pageInfo().hasNextPage();
+            } else {
+                // No paging metadata: assume more only if this page came back full
+                hasNext = body.tasks().size() >= pageSize;
             }
+            return new TaskPage(tasks, hasNext);
         } catch (Exception e) {
-            System.err.println("❌ Fetch Error: " + e.getMessage());
+            System.err.println("❌ Fetch Error (page " + page + "): " + e.getMessage());
+            return null;
         }
-        return Collections.emptyList();
     }
+
+    private record TaskPage(List<ZohoTask> tasks, boolean hasNext) {}
     
     public boolean createTask(String taskName, String dueDate, String priority) {
+        return createTask(projectRegistry.getDefault(), taskName, dueDate, priority);
+    }
+
+    public boolean createTask(MonitoredProject project, String taskName, String dueDate, String priority) {
         String token = getAccessToken();
         if (token == null) return false;
 
-        String url = "https://projectsapi.zoho.com/restapi/portal/" + portalId + 
-                     "/projects/" + projectId + "/tasks/";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + token);
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        String url = "https://projectsapi.zoho.com/restapi/portal/" + project.getPortalId() + 
+                     "/projects/" + project.getProjectId() + "/tasks/";
 
         MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
         
@@ -150,11 +304,10 @@ public class ZohoApiService {
         body.add("end_date", finalDate);
         body.add("priority", priority);
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
-
         try {
             // Send Request
-        	ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+        	ResponseEntity<String> response = callZoho(rateLimiter.currentPriority(), token,
+        			t -> restTemplate.postForEntity(url, formRequest(body, t), String.class));
         	System.out.println("📤 Response: " + response.getStatusCode());
             
             if (response.getStatusCode().is2xxSuccessful()) {
@@ -164,6 +317,8 @@ public class ZohoApiService {
                 System.err.println("❌ Zoho Failed: " + response.getBody());
                 return false;
             }
+        } catch (ZohoBudgetExhaustedException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ Create Task Failed: " + e.getMessage());
             return false;
@@ -171,15 +326,15 @@ public class ZohoApiService {
     }
     
     public boolean updateTaskField(String taskId, String field, String value) {
+        return updateTaskField(projectRegistry.getDefault(), taskId, field, value);
+    }
+
+    public boolean updateTaskField(MonitoredProject project, String taskId, String field, String value) {
         String token = getAccessToken();
         if (token == null) return false;
 
-        String url = "https://projectsapi.zoho.com/restapi/portal/" + portalId + 
-                     "/projects/" + projectId + "/tasks/" + taskId + "/";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + token);
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        String url = "https://projectsapi.zoho.com/restapi/portal/" + project.getPortalId() + 
+                     "/projects/" + project.getProjectId() + "/tasks/" + taskId + "/";
 
         MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
 
@@ -214,12 +369,12 @@ public class ZohoApiService {
                 return false;
         }
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
-
         try {
-            restTemplate.postForObject(url, request, String.class);
+            callZoho(rateLimiter.currentPriority(), token, t -> restTemplate.postForObject(url, formRequest(body, t), String.class));
             System.out.println("✅ Task " + taskId + " updated (" + field + ")");
             return true;
+        } catch (ZohoBudgetExhaustedException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ Update Failed: " + e.getMessage());
             return false;
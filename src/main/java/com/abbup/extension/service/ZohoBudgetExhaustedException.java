@@ -0,0 +1,17 @@
+package com.abbup.extension.service;
+
+// Thrown when a Zoho call can't get a slot in the shared request budget in time, typically
+// because Zoho asked us (Retry-After) to pause for longer than callers are allowed to wait.
+public class ZohoBudgetExhaustedException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public ZohoBudgetExhaustedException(long retryAfterMillis) {
+        super("Zoho request budget exhausted, retry in " + (retryAfterMillis / 1000) + "s");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,222 @@
+package com.abbup.extension.service;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+
+import jakarta.annotation.PostConstruct;
+
+// Client-side request budget for the Zoho Projects API, shared by the scheduler and bot commands.
+// Token bucket: background work may not dip into the slice reserved for interactive commands.
+// A 429 pauses everyone until Retry-After and halves the refill rate, which then creeps back.
+// Threads are BACKGROUND unless marked otherwise; bot commands run as INTERACTIVE.
+// Waiters park on a Condition rather than a monitor so virtual threads don't pin their carrier.
+@Service
+public class ZohoRateLimiter {
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = ThreadLocal.withInitial(() -> Priority.BACKGROUND);
+
+    @Value("${zoho.ratelimit.capacity:100}")
+    private int capacity;
+    @Value("${zoho.ratelimit.refill-per-minute:100}")
+    private double refillPerMinute;
+    @Value("${zoho.ratelimit.interactive-reserve:0.2}")
+    private double interactiveReserve;
+    @Value("${zoho.ratelimit.max-wait-ms:30000}")
+    private long maxWaitMillis;
+    @Value("${zoho.ratelimit.default-backoff-seconds:60}")
+    private long defaultBackoffSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition budgetChanged = lock.newCondition();
+
+    // Guarded by lock
+    private double tokens;
+    private long lastRefillTime;
+    private double rateFactor = 1.0;
+    private long pausedUntil = 0;
+
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        tokens = capacity;
+        lastRefillTime = System.currentTimeMillis();
+    }
+
+    // --- PRIORITY CONTEXT ---
+
+    public Priority currentPriority() {
+        return CURRENT_PRIORITY.get();
+    }
+
+    public void runWithPriority(Priority priority, Runnable work) {
+        Priority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            work.run();
+        } finally {
+            CURRENT_PRIORITY.set(previous);
+        }
+    }
+
+    public void runInBackground(Runnable work) {
+        runWithPriority(Priority.BACKGROUND, work);
+    }
+
+    // --- BUDGET ---
+
+    // Blocks until a request may go out. Returns false if none became available within max-wait,
+    // straight away when a Retry-After pause already outlasts it.
+    public boolean acquire(Priority priority) {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        double floor = (priority == Priority.BACKGROUND) ? capacity * interactiveReserve : 0;
+
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                refill(now);
+
+                long waitMillis;
+                if (now < pausedUntil) {
+                    if (pausedUntil > deadline) {
+                        rejectedCount.incrementAndGet();
+                        return false;
+                    }
+                    waitMillis = pausedUntil - now;
+                } else if (tokens - 1 >= floor) {
+                    tokens -= 1;
+                    return true;
+                } else {
+                    double perMilli = refillPerMinute * rateFactor / 60000.0;
+                    waitMillis = (long) Math.ceil((floor + 1 - tokens) / perMilli);
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    rejectedCount.incrementAndGet();
+                    return false;
+                }
+                try {
+                    budgetChanged.await(Math.max(1, Math.min(waitMillis, remaining)), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            // Additive recovery after a throttle
+            if (rateFactor < 1.0) rateFactor = Math.min(1.0, rateFactor + 0.05);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onThrottled(RestClientResponseException e) {
+        long backoffMillis = retryAfterMillis(e);
+        throttledCount.incrementAndGet();
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + backoffMillis);
+            rateFactor = Math.max(0.1, rateFactor / 2);
+            tokens = 0;
+            // Waiters recompute against the new pause instead of sleeping out their old estimate
+            budgetChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        System.err.println("⏳ Zoho rate limit hit. Pausing for " + (backoffMillis / 1000) + "s");
+    }
+
+    public static boolean isThrottled(RestClientResponseException e) {
+        return e.getStatusCode().value() == 429;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillTime;
+        if (elapsed <= 0) return;
+        tokens = Math.min(capacity, tokens + elapsed * refillPerMinute * rateFactor / 60000.0);
+        lastRefillTime = now;
+    }
+
+    private long retryAfterMillis(RestClientResponseException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String retryAfter = (headers == null) ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return Long.parseLong(retryAfter.trim()) * 1000L;
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    Instant at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    return Math.max(0, at.toEpochMilli() - System.currentTimeMillis());
+                } catch (Exception ignored) { }
+            }
+        }
+        return defaultBackoffSeconds * 1000L;
+    }
+
+    public <T> T call(Priority priority, int maxRetries, Supplier<T> request) {
+        for (int attempt = 0; ; attempt++) {
+            if (!acquire(priority)) {
+                throw new ZohoBudgetExhaustedException(pausedForMillis());
+            }
+            try {
+                T result = request.get();
+                onSuccess();
+                return result;
+            } catch (RestClientResponseException e) {
+                if (!isThrottled(e) || attempt >= maxRetries) throw e;
+                onThrottled(e);
+            }
+        }
+    }
+
+    public long pausedForMillis() {
+        lock.lock();
+        try {
+            return Math.max(0, pausedUntil - System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            refill(System.currentTimeMillis());
+            stats.put("remainingBudget", (long) Math.floor(tokens));
+            stats.put("capacity", capacity);
+            stats.put("rateFactor", rateFactor);
+            stats.put("pausedForMillis", Math.max(0, pausedUntil - System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+        stats.put("throttled", throttledCount.get());
+        stats.put("rejected", rejectedCount.get());
+        return stats;
+    }
+}
@@ -0,0 +1,113 @@
+package com.abbup.extension.service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.abbup.extension.model.ZohoTask;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Wire shapes of the Zoho Projects v3 task API. Jackson binds the response stream straight into
+// these records (skipping every field we don't read), and toTask() folds them into ZohoTask.
+public final class ZohoTaskJson {
+
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+
+    private ZohoTaskJson() {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TaskListResponse(List<TaskJson> tasks, @JsonProperty("page_info") PageInfo pageInfo) {
+
+        public List<ZohoTask> toTasks() {
+            if (tasks == null) return List.of();
+            List<ZohoTask> result = new ArrayList<>(tasks.size());
+            for (TaskJson json : tasks) {
+                ZohoTask task = json.toTask();
+                if (task != null) result.add(task);
+            }
+            return result;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record PageInfo(@JsonProperty("has_next_page") Boolean hasNextPage) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Named(String name) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record OwnersAndWork(List<Named> owners) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TaskJson(
+            String id,
+            String name,
+            Named status,
+            Object priority,
+            @JsonProperty("end_date") String endDate,
+            @JsonProperty("owners_and_work") OwnersAndWork ownersAndWork,
+            @JsonProperty("last_modified_time") String lastModifiedTime) {
+
+        // Returns null for entries without a usable id
+        public ZohoTask toTask() {
+            long taskId;
+            try {
+                taskId = Long.parseLong(id.trim());
+            } catch (Exception e) {
+                return null;
+            }
+            return new ZohoTask(
+                    taskId,
+                    name,
+                    intern(status == null ? null : status.name()),
+                    intern(priorityName()),
+                    parseEpochDay(endDate),
+                    ownerName(),
+                    parseMillis(lastModifiedTime));
+        }
+
+        // Older payloads send priority as a plain string, v3 as {"name": ...}
+        private String priorityName() {
+            if (priority instanceof Map<?, ?> map) return (String) map.get("name");
+            return (priority == null) ? null : String.valueOf(priority);
+        }
+
+        private String ownerName() {
+            if (ownersAndWork == null || ownersAndWork.owners() == null || ownersAndWork.owners().isEmpty()) {
+                return ZohoTask.UNASSIGNED;
+            }
+            String owner = ownersAndWork.owners().get(0).name();
+            return (owner == null) ? ZohoTask.UNASSIGNED : owner.intern();
+        }
+    }
+
+    private static String intern(String value) {
+        return (value == null) ? null : value.intern();
+    }
+
+    // Accepts the timestamp (2025-11-29T09:00:00+05:30), ISO date and MM-dd-yyyy forms Zoho returns
+    static int parseEpochDay(String raw) {
+        if (raw == null || raw.isBlank()) return ZohoTask.NO_DUE_DATE;
+        try {
+            if (raw.contains("T")) return (int) ZonedDateTime.parse(raw).toLocalDate().toEpochDay();
+            if (raw.length() == 10 && raw.charAt(4) == '-') return (int) LocalDate.parse(raw).toEpochDay();
+            return (int) LocalDate.parse(raw, US_DATE).toEpochDay();
+        } catch (Exception e) {
+            return ZohoTask.NO_DUE_DATE;
+        }
+    }
+
+    static long parseMillis(String raw) {
+        if (raw == null || raw.isBlank()) return 0;
+        try {
+            return OffsetDateTime.parse(raw).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.abbup.extension.service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+// Owns the Zoho OAuth access token. A background job renews it before it expires, so bot
+// commands normally just read the cached value. Concurrent refreshes collapse into one POST.
+@Service
+public class ZohoTokenManager {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${zoho.client.id}")
+    private String clientId;
+    @Value("${zoho.client.secret}")
+    private String clientSecret;
+    @Value("${zoho.refresh.token}")
+    private String refreshToken;
+    @Value("${zoho.token.refresh-ahead-seconds:300}")
+    private long refreshAheadSeconds;
+    @Value("${zoho.token.retry-seconds:30}")
+    private long retrySeconds;
+
+    private volatile String accessToken = null;
+    private volatile long tokenExpiryTime = 0;
+    // A lock rather than a monitor: callers on virtual threads may wait here for the token POST
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final TaskScheduler taskScheduler;
+    private ScheduledFuture<?> nextRefresh;
+
+    // Metrics
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalRefreshMillis = new AtomicLong();
+    private volatile long lastRefreshMillis = 0;
+
+    public ZohoTokenManager() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("zoho-token-");
+        scheduler.initialize();
+        this.taskScheduler = scheduler;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Warm the token off the startup thread so the first command finds it ready
+        scheduleRefresh(Instant.now());
+    }
+
+    public String getAccessToken() {
+        String token = accessToken;
+        if (token != null && System.currentTimeMillis() < tokenExpiryTime) return token;
+        // Deliberate fallback: only reached before the first refresh lands or while background
+        // renewal keeps failing. The caller then refreshes inline rather than fail outright;
+        // concurrent callers wait on the same refresh instead of sending their own.
+        return refresh(token);
+    }
+
+    // Called when Zoho rejects a token; forces a refresh unless another thread already did one.
+    // Returns the token to retry with, or null if none could be obtained.
+    public String invalidate(String rejectedToken) {
+        return refresh(rejectedToken);
+    }
+
+    private String refresh(String staleToken) {
+        refreshLock.lock();
+        try {
+            String token = accessToken;
+            if (token != null && token != staleToken && System.currentTimeMillis() < tokenExpiryTime) {
+                return token;
+            }
+
+            System.out.println("🔄 Generating NEW Access Token...");
+            long start = System.currentTimeMillis();
+            String fresh = requestToken();
+            long elapsed = System.currentTimeMillis() - start;
+
+            refreshCount.incrementAndGet();
+            totalRefreshMillis.addAndGet(elapsed);
+            lastRefreshMillis = elapsed;
+
+            if (fresh == null) {
+                failureCount.incrementAndGet();
+                scheduleRefresh(Instant.now().plusSeconds(retrySeconds));
+                return null;
+            }
+            scheduleRefresh(Instant.ofEpochMilli(tokenExpiryTime).minusSeconds(refreshAheadSeconds));
+            return fresh;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private String requestToken() {
+        String url = "https://accounts.zoho.com/oauth/v2/token";
+
+        MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
+        map.add("refresh_token", refreshToken);
+        map.add("client_id", clientId);
+        map.add("client_secret", clientSecret);
+        map.add("grant_type", "refresh_token");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(map, headers);
+
+        try {
+            Map response = restTemplate.postForObject(url, request, Map.class);
+            if (response != null && response.containsKey("access_token")) {
+                int expiresIn = Integer.parseInt(String.valueOf(response.get("expires_in")));
+                this.tokenExpiryTime = System.currentTimeMillis() + (expiresIn * 1000L);
+                this.accessToken = (String) response.get("access_token");
+                return this.accessToken;
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Token Error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void scheduleRefresh(Instant when) {
+        refreshLock.lock();
+        try {
+            if (nextRefresh != null) nextRefresh.cancel(false);
+            nextRefresh = taskScheduler.schedule(() -> refresh(accessToken), when);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long count = refreshCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("refreshes", count);
+        stats.put("failures", failureCount.get());
+        stats.put("lastRefreshMillis", lastRefreshMillis);
+        stats.put("avgRefreshMillis", count == 0 ? 0 : totalRefreshMillis.get() / count);
+        stats.put("expiresInSeconds", Math.max(0, (tokenExpiryTime - System.currentTimeMillis()) / 1000));
+        return stats;
+    }
+}
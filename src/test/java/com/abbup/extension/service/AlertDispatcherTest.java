@@ -0,0 +1,218 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.abbup.extension.model.Connection;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class AlertDispatcherTest {
+
+	private static final Connection ALICE = new Connection("alice", "https://cliq.zoho.com/hook/alice");
+
+	// Stands in for Cliq: records each posted body, holds posts until released, and fails with the queued errors first
+	private static class Webhook extends RestTemplate {
+		final List<String> posted = Collections.synchronizedList(new ArrayList<>());
+		final ConcurrentLinkedQueue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+		final CountDownLatch firstPost = new CountDownLatch(1);
+		volatile CountDownLatch gate = new CountDownLatch(0);
+
+		@Override
+		public <T> T postForObject(String url, Object request, Class<T> responseType, Object... uriVariables) {
+			firstPost.countDown();
+			try {
+				gate.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			RuntimeException failure = failures.poll();
+			if (failure != null) throw failure;
+			posted.add(url + " " + new String((byte[]) ((HttpEntity<?>) request).getBody(), StandardCharsets.UTF_8));
+			return null;
+		}
+	}
+
+	private static AlertDispatcher dispatcher(Webhook webhook, int queueCapacity, AlertDispatcher.OverflowPolicy policy) {
+		AlertDispatcher dispatcher = new AlertDispatcher(4, 2);
+		ReflectionTestUtils.setField(dispatcher, "restTemplate", webhook);
+		ReflectionTestUtils.setField(dispatcher, "messageComponents", new MessageComponents());
+		ReflectionTestUtils.setField(dispatcher, "jsonMapper", new JsonMapper());
+		ReflectionTestUtils.setField(dispatcher, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(dispatcher, "overflowPolicy", policy);
+		ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+		ReflectionTestUtils.setField(dispatcher, "backoffBaseMillis", 10L);
+		ReflectionTestUtils.setField(dispatcher, "backoffMaxMillis", 50L);
+		ReflectionTestUtils.setField(dispatcher, "deadLetterCapacity", 10);
+		return dispatcher;
+	}
+
+	private static Map<String, Object> alert(String text) {
+		return Map.of("text", text);
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) throw new AssertionError("timed out");
+			Thread.sleep(10);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long stat(AlertDispatcher dispatcher, String key, String name) {
+		Map<String, Object> entry = (Map<String, Object>) dispatcher.getStats().get(key);
+		return entry == null ? 0 : ((Number) entry.get(name)).longValue();
+	}
+
+	// Sends the first alert and waits until it is stuck in flight, so the rest pile up in the queue
+	private static void blockOnFirst(AlertDispatcher dispatcher, Webhook webhook) throws InterruptedException {
+		webhook.gate = new CountDownLatch(1);
+		dispatcher.send(ALICE, alert("alert-1"));
+		assertTrue(webhook.firstPost.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void dropOldestKeepsTheNewestAlerts() throws Exception {
+		Webhook webhook = new Webhook();
+		AlertDispatcher dispatcher = dispatcher(webhook, 2, AlertDispatcher.OverflowPolicy.DROP_OLDEST);
+
+		blockOnFirst(dispatcher, webhook);
+		for (int i = 2; i <= 4; i++) dispatcher.send(ALICE, alert("alert-" + i));
+		webhook.gate.countDown();
+		awaitUntil(() -> stat(dispatcher, "alice", "delivered") == 3);
+
+		assertTrue(webhook.posted.get(0).contains("alert-1"));
+		assertTrue(webhook.posted.get(1).contains("alert-3"));
+		assertTrue(webhook.posted.get(2).contains("alert-4"));
+		assertEquals(1L, stat(dispatcher, "alice", "dropped"));
+	}
+
+	@Test
+	void coalesceFoldsTheBacklogIntoADigest() throws Exception {
+		Webhook webhook = new Webhook();
+		AlertDispatcher dispatcher = dispatcher(webhook, 2, AlertDispatcher.OverflowPolicy.COALESCE);
+
+		blockOnFirst(dispatcher, webhook);
+		for (int i = 2; i <= 4; i++) dispatcher.send(ALICE, alert("alert-" + i));
+		webhook.gate.countDown();
+		awaitUntil(() -> stat(dispatcher, "alice", "delivered") == 3);
+
+		String digest = webhook.posted.get(1);
+		assertTrue(digest.contains("2 alerts") && digest.contains("alert-2") && digest.contains("alert-3"), digest);
+		assertTrue(webhook.posted.get(2).contains("alert-4"));
+		assertEquals(2L, stat(dispatcher, "alice", "coalesced"));
+	}
+
+	@Test
+	void clientErrorIsDeadLetteredWithoutRetry() throws Exception {
+		Webhook webhook = new Webhook();
+		webhook.failures.add(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+		AlertDispatcher dispatcher = dispatcher(webhook, 10, AlertDispatcher.OverflowPolicy.COALESCE);
+
+		dispatcher.send(ALICE, alert("alert-1"));
+		awaitUntil(() -> !dispatcher.getDeadLetters().isEmpty());
+
+		AlertDispatcher.DeadLetter dead = dispatcher.getDeadLetters().get(0);
+		assertEquals(1, dead.attempts());
+		assertEquals("cliq.zoho.com", dead.host());
+		assertEquals(0L, stat(dispatcher, "alice", "retried"));
+		assertTrue(webhook.posted.isEmpty());
+	}
+
+	@Test
+	void tooManyRequestsIsRetried() throws Exception {
+		Webhook webhook = new Webhook();
+		webhook.failures.add(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+		AlertDispatcher dispatcher = dispatcher(webhook, 10, AlertDispatcher.OverflowPolicy.COALESCE);
+
+		dispatcher.send(ALICE, alert("alert-1"));
+		awaitUntil(() -> stat(dispatcher, "alice", "delivered") == 1);
+
+		assertEquals(1L, stat(dispatcher, "alice", "retried"));
+		assertTrue(dispatcher.getDeadLetters().isEmpty());
+	}
+
+	@Test
+	void forgottenSubscriberGetsNothingMoreAndDropsOutOfStats() throws Exception {
+		Webhook webhook = new Webhook();
+		AlertDispatcher dispatcher = dispatcher(webhook, 10, AlertDispatcher.OverflowPolicy.COALESCE);
+
+		blockOnFirst(dispatcher, webhook);
+		dispatcher.send(ALICE, alert("alert-2"));
+		dispatcher.forget("alice");
+		webhook.gate.countDown();
+		Thread.sleep(100);
+
+		assertEquals(1, webhook.posted.size());
+		assertFalse(dispatcher.getStats().containsKey("alice"));
+	}
+
+	@Test
+	void queuedAlertsFollowANewWebhook() throws Exception {
+		Webhook webhook = new Webhook();
+		AlertDispatcher dispatcher = dispatcher(webhook, 10, AlertDispatcher.OverflowPolicy.COALESCE);
+
+		blockOnFirst(dispatcher, webhook);
+		dispatcher.send(ALICE, alert("alert-2"));
+		dispatcher.retarget(new Connection("alice", "https://cliq.zoho.com/hook/alice-new"));
+		webhook.gate.countDown();
+		awaitUntil(() -> webhook.posted.size() == 2);
+
+		assertTrue(webhook.posted.get(1).startsWith("https://cliq.zoho.com/hook/alice-new "));
+	}
+
+	@Test
+	void repliesAreCountedApartFromSubscribers() throws Exception {
+		Webhook webhook = new Webhook();
+		AlertDispatcher dispatcher = dispatcher(webhook, 10, AlertDispatcher.OverflowPolicy.COALESCE);
+
+		dispatcher.reply("https://cliq.zoho.com/response/1", alert("done"));
+		awaitUntil(() -> stat(dispatcher, "replies", "delivered") == 1);
+
+		assertEquals(Map.of("replies", dispatcher.getStats().get("replies")), dispatcher.getStats());
+	}
+
+	@Test
+	void statsRollUpPerWebhookHost() throws Exception {
+		Webhook webhook = new Webhook();
+		AlertDispatcher dispatcher = dispatcher(webhook, 10, AlertDispatcher.OverflowPolicy.COALESCE);
+		SubscriberRegistry registry = new SubscriberRegistry();
+		ReflectionTestUtils.setField(registry, "stateDir", Files.createTempDirectory("subscribers").toString());
+		registry.load();
+		ReflectionTestUtils.setField(dispatcher, "subscriberRegistry", registry);
+		Connection bob = new Connection("bob", "https://cliq.zoho.com/hook/bob");
+		Connection carol = new Connection("carol", "https://cliq.zoho.eu/hook/carol");
+		for (Connection subscriber : List.of(ALICE, bob, carol)) registry.register(subscriber);
+
+		dispatcher.broadcast(List.of(ALICE, bob, carol), alert("alert-1"));
+		awaitUntil(() -> webhook.posted.size() == 3);
+
+		Map<String, Object> byHost = dispatcher.getStatsByHost();
+		assertEquals(Set.of("cliq.zoho.com", "cliq.zoho.eu"), byHost.keySet());
+		assertEquals(2, ((Map<?, ?>) byHost.get("cliq.zoho.com")).get("subscribers"));
+		awaitUntil(() -> ((Number) ((Map<?, ?>) dispatcher.getStatsByHost().get("cliq.zoho.com")).get("delivered")).longValue() == 2);
+		registry.close();
+	}
+
+}
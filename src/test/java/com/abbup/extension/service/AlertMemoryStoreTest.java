@@ -0,0 +1,95 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+
+class AlertMemoryStoreTest {
+
+	private static final int RECORD_BYTES = 13;
+
+	private static Path logFile() throws Exception {
+		return Files.createTempDirectory("alert-memory").resolve("alerts.log");
+	}
+
+	@Test
+	void restartReplaysTheLog() throws Exception {
+		Path log = logFile();
+		AlertMemoryStore store = new AlertMemoryStore(log, 1000);
+		assertTrue(store.claimAlert(7, 20000));
+		assertEquals(AlertMemoryStore.NO_DAY, store.exchangeDueDay(7, 20005));
+		store.exchangeDueDay(8, 20010);
+		store.forget(8);
+		store.close();
+
+		AlertMemoryStore reopened = new AlertMemoryStore(log, 1000);
+		assertEquals(20000, reopened.getLastAlertDay(7));
+		assertEquals(20005, reopened.getLastDueDay(7));
+		assertEquals(AlertMemoryStore.NO_DAY, reopened.getLastDueDay(8));
+		// Today's alert was already sent before the restart
+		assertFalse(reopened.claimAlert(7, 20000));
+		reopened.close();
+	}
+
+	@Test
+	void recordTornByACrashIsSkipped() throws Exception {
+		Path log = logFile();
+		AlertMemoryStore store = new AlertMemoryStore(log, 1000);
+		store.claimAlert(7, 20000);
+		store.close();
+		Files.write(log, new byte[] { 1, 0, 0, 0, 0 }, StandardOpenOption.APPEND);
+
+		AlertMemoryStore reopened = new AlertMemoryStore(log, 1000);
+		assertEquals(20000, reopened.getLastAlertDay(7));
+		reopened.close();
+	}
+
+	@Test
+	void logIsCompactedDownToTheLiveEntries() throws Exception {
+		Path log = logFile();
+		AlertMemoryStore store = new AlertMemoryStore(log, 4);
+		for (int day = 20000; day < 20050; day++) store.exchangeDueDay(7, day);
+		store.close();
+
+		// Compaction runs after each written batch, so however the writes were batched no more
+		// than the threshold's worth of records is left behind
+		assertTrue(Files.size(log) <= 4 * RECORD_BYTES, "log holds " + Files.size(log) + " bytes");
+		AlertMemoryStore reopened = new AlertMemoryStore(log, 4);
+		assertEquals(20049, reopened.getLastDueDay(7));
+		reopened.close();
+	}
+
+	@Test
+	void writerRecoversOnceTheLogIsWritableAgain() throws Exception {
+		// A plain file where the log's directory should be makes every write fail
+		Path blocker = Files.createTempFile("alert-memory", ".blocker");
+		Path log = blocker.resolve("alerts.log");
+		AlertMemoryStore store = new AlertMemoryStore(log, 1000);
+		store.claimAlert(7, 20000);
+		store.exchangeDueDay(7, 20005);
+		Thread.sleep(200);
+
+		Files.delete(blocker);
+		store.claimAlert(8, 20001);
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!Files.exists(log) || Files.size(log) < 3 * RECORD_BYTES) {
+			if (System.currentTimeMillis() > deadline) throw new AssertionError("log was not rewritten");
+			Thread.sleep(50);
+		}
+		store.close();
+
+		// Changes made while the log was unusable were rewritten from memory
+		AlertMemoryStore reopened = new AlertMemoryStore(log, 1000);
+		assertEquals(20000, reopened.getLastAlertDay(7));
+		assertEquals(20005, reopened.getLastDueDay(7));
+		assertEquals(20001, reopened.getLastAlertDay(8));
+		reopened.close();
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class AlertStateTableTest {
+
+	private static final int NO_DAY = AlertStateTable.NO_DAY;
+
+	@Test
+	void keepsAlertAndDueDaysPerTask() {
+		AlertStateTable table = new AlertStateTable();
+		assertEquals(NO_DAY, table.putAlertDay(42, 100));
+		assertEquals(NO_DAY, table.putDueDay(42, 105));
+		assertEquals(100, table.putAlertDay(42, 101));
+
+		assertEquals(101, table.getAlertDay(42));
+		assertEquals(105, table.getDueDay(42));
+		assertEquals(NO_DAY, table.getAlertDay(43));
+		assertEquals(1, table.size());
+	}
+
+	@Test
+	void clearingBothDaysRemovesTheEntry() {
+		AlertStateTable table = new AlertStateTable();
+		table.putAlertDay(7, 100);
+		table.putAlertDay(7, NO_DAY);
+		assertEquals(0, table.size());
+		assertFalse(table.remove(7));
+	}
+
+	@Test
+	void storesTaskIdZero() {
+		AlertStateTable table = new AlertStateTable();
+		table.putDueDay(0, 9);
+		assertEquals(9, table.getDueDay(0));
+		assertTrue(table.remove(0));
+		assertEquals(NO_DAY, table.getDueDay(0));
+	}
+
+	// Three ids that share a segment and all hash to the last slot of its 16-slot table probe
+	// past the end and wrap to slots 0 and 1; removing the head must pull both back into reach.
+	@Test
+	void removeKeepsWrappedProbeChainReachable() {
+		List<Long> ids = idsHomedAt(0, 15, 3);
+		AlertStateTable table = new AlertStateTable();
+		for (long id : ids) table.putAlertDay(id, (int) id);
+
+		assertTrue(table.remove(ids.get(0)));
+		assertEquals(NO_DAY, table.getAlertDay(ids.get(0)));
+		assertEquals((int) (long) ids.get(1), table.getAlertDay(ids.get(1)));
+		assertEquals((int) (long) ids.get(2), table.getAlertDay(ids.get(2)));
+
+		assertTrue(table.remove(ids.get(2)));
+		assertEquals((int) (long) ids.get(1), table.getAlertDay(ids.get(1)));
+		assertEquals(1, table.size());
+	}
+
+	@Test
+	void matchesReferenceMapThroughResizesAndDeletes() {
+		AlertStateTable table = new AlertStateTable();
+		Map<Long, Integer> reference = new HashMap<>();
+		Random random = new Random(17);
+
+		for (int i = 0; i < 200_000; i++) {
+			// Small id range so puts, overwrites and removes keep hitting the same chains
+			long id = random.nextInt(20_000);
+			if (random.nextInt(3) == 0) {
+				assertEquals(reference.remove(id) != null, table.remove(id), "remove " + id);
+			} else {
+				int day = random.nextInt(1000);
+				Integer previous = reference.put(id, day);
+				assertEquals(previous == null ? NO_DAY : previous, table.putAlertDay(id, day), "put " + id);
+			}
+		}
+
+		assertEquals(reference.size(), table.size());
+		for (long id = 0; id < 20_000; id++) {
+			Integer expected = reference.get(id);
+			assertEquals(expected == null ? NO_DAY : expected, table.getAlertDay(id), "get " + id);
+		}
+		long[] visited = { 0 };
+		table.forEach((taskId, alertDay, dueDay) -> {
+			assertEquals((int) reference.get(taskId), alertDay);
+			visited[0]++;
+		});
+		assertEquals(reference.size(), visited[0]);
+	}
+
+	// Mirrors AlertStateTable's hash: segment from the top 6 bits, slot from the low bits
+	private static List<Long> idsHomedAt(int segment, int slot, int count) {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 1; ids.size() < count; id++) {
+			long h = id * 0x9E3779B97F4A7C15L;
+			h ^= h >>> 32;
+			if ((int) (h >>> 58) == segment && ((int) h & 15) == slot) ids.add(id);
+		}
+		return ids;
+	}
+
+}
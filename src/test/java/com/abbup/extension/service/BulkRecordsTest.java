@@ -0,0 +1,58 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BulkRecordsTest {
+
+	@Test
+	void quotedFieldsKeepCommasAndEscapedQuotes() {
+		assertArrayEquals(new String[] { "Fix, then test", "2026-12-01", "High" },
+				BulkRecords.parseCsvLine("\"Fix, then test\", 2026-12-01, High"));
+		assertArrayEquals(new String[] { "Say \"hi\"", "x" },
+				BulkRecords.parseCsvLine("\"Say \"\"hi\"\"\",x"));
+		assertArrayEquals(new String[] { "a", "", "c" },
+				BulkRecords.parseCsvLine("a,,c"));
+	}
+
+	@Test
+	void headerWithOneRowIsSkipped() {
+		BulkRecords.Parsed parsed = BulkRecords.parse("Name,Date,Priority\nFix, 2026-12-01, High");
+
+		assertTrue(parsed.hadHeader());
+		assertEquals(1, parsed.rows().size());
+		assertArrayEquals(new String[] { "Fix", "2026-12-01", "High" }, parsed.rows().get(0));
+	}
+
+	@Test
+	void taskNamedLikeAHeaderWordIsKept() {
+		BulkRecords.Parsed parsed = BulkRecords.parse("Task, 2026-12-01, High\nName, 2026-12-02, Low");
+
+		assertFalse(parsed.hadHeader());
+		assertEquals(2, parsed.rows().size());
+	}
+
+	@Test
+	void updateHeaderIsToldApartFromUpdateRows() {
+		assertTrue(BulkRecords.parse("ID, Field, Value\n123, name, Renamed").hadHeader());
+		assertFalse(BulkRecords.parse("123, name, Renamed").hadHeader());
+	}
+
+	@Test
+	void onlyTheFirstLineCanBeAHeaderAndBlankLinesAreIgnored() {
+		BulkRecords.Parsed parsed = BulkRecords.parse("\nFix, 2026-12-01, High\r\n\nName, Date, Priority\n");
+
+		assertFalse(parsed.hadHeader());
+		assertEquals(2, parsed.rows().size());
+	}
+
+	@Test
+	void singleFieldLineIsNotAHeader() {
+		assertFalse(BulkRecords.parse("Cleanup").hadHeader());
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.abbup.extension.model.MonitoredProject;
+
+class EscalationQueueTest {
+
+	private static final MonitoredProject PROJECT = new MonitoredProject("1", "2", "Helios Core", 5);
+
+	// Records each priority update instead of calling Zoho; the first 'failuresLeft' fail
+	private static class FakeZoho extends ZohoApiService {
+		final List<String> updates = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger failuresLeft = new AtomicInteger();
+
+		@Override
+		public boolean updateTaskPriority(MonitoredProject project, String taskId, String newPriority) {
+			updates.add(taskId + "=" + newPriority);
+			return failuresLeft.getAndDecrement() <= 0;
+		}
+	}
+
+	private static EscalationQueue queue(FakeZoho zoho, long retryDelayMillis) {
+		EscalationQueue queue = new EscalationQueue(4);
+		ReflectionTestUtils.setField(queue, "zohoApiService", zoho);
+		ReflectionTestUtils.setField(queue, "rateLimiter", new ZohoRateLimiter());
+		ReflectionTestUtils.setField(queue, "flushDelayMillis", 50L);
+		ReflectionTestUtils.setField(queue, "maxAttempts", 3);
+		ReflectionTestUtils.setField(queue, "retryDelayMillis", retryDelayMillis);
+		return queue;
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) throw new AssertionError("timed out");
+			Thread.sleep(10);
+		}
+	}
+
+	private static long stat(EscalationQueue queue, String name) {
+		return (Long) queue.getStats().get(name);
+	}
+
+	@Test
+	void repeatedRequestsForATaskCoalesceIntoTheLatest() throws Exception {
+		FakeZoho zoho = new FakeZoho();
+		EscalationQueue queue = queue(zoho, 20);
+
+		queue.enqueue(PROJECT, 7, "Medium");
+		queue.enqueue(PROJECT, 7, "High");
+		queue.enqueue(PROJECT, 8, "High");
+		awaitUntil(() -> stat(queue, "applied") == 2);
+
+		assertEquals(2, zoho.updates.size());
+		assertTrue(zoho.updates.containsAll(List.of("7=High", "8=High")));
+		assertEquals(1L, stat(queue, "coalesced"));
+		assertEquals(0, queue.pendingCount());
+	}
+
+	@Test
+	void failedUpdateIsRetriedWithBackoff() throws Exception {
+		FakeZoho zoho = new FakeZoho();
+		zoho.failuresLeft.set(2);
+		EscalationQueue queue = queue(zoho, 20);
+
+		queue.enqueue(PROJECT, 7, "High");
+		awaitUntil(() -> stat(queue, "applied") == 1);
+
+		assertEquals(List.of("7=High", "7=High", "7=High"), zoho.updates);
+		assertEquals(2L, stat(queue, "retried"));
+	}
+
+	@Test
+	void givesUpAfterMaxAttempts() throws Exception {
+		FakeZoho zoho = new FakeZoho();
+		zoho.failuresLeft.set(10);
+		EscalationQueue queue = queue(zoho, 20);
+
+		queue.enqueue(PROJECT, 7, "High");
+		awaitUntil(() -> stat(queue, "failed") == 1);
+
+		assertEquals(3, zoho.updates.size());
+		assertEquals(0, queue.pendingCount());
+	}
+
+	@Test
+	void newEscalationDoesNotWaitBehindARetryBackoff() throws Exception {
+		FakeZoho zoho = new FakeZoho();
+		zoho.failuresLeft.set(1);
+		EscalationQueue queue = queue(zoho, 60_000);
+
+		queue.enqueue(PROJECT, 7, "High");
+		awaitUntil(() -> stat(queue, "retried") == 1);
+
+		// The drainer is now sleeping towards task 7's retry, a minute out
+		long start = System.currentTimeMillis();
+		queue.enqueue(PROJECT, 8, "High");
+		awaitUntil(() -> stat(queue, "applied") == 1);
+
+		assertTrue(System.currentTimeMillis() - start < 2_000);
+		assertEquals("8=High", zoho.updates.get(1));
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class EventIdempotencyCacheTest {
+
+	private static EventIdempotencyCache cache(long ttlSeconds, int maxEntries) {
+		EventIdempotencyCache cache = new EventIdempotencyCache();
+		ReflectionTestUtils.setField(cache, "ttlSeconds", ttlSeconds);
+		ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+		return cache;
+	}
+
+	@Test
+	void retriedEventIsDroppedWithinTheTtl() {
+		EventIdempotencyCache cache = cache(300, 100);
+		String event = EventIdempotencyCache.fingerprint("createtask", "alice", "Ship it");
+
+		assertTrue(cache.firstSeen(event));
+		assertFalse(cache.firstSeen(event));
+		assertEquals(1L, cache.getStats().get("duplicates"));
+	}
+
+	@Test
+	void eventIsAcceptedAgainOnceItExpires() throws Exception {
+		EventIdempotencyCache cache = cache(1, 100);
+		String event = EventIdempotencyCache.fingerprint("checkstatus", "alice");
+
+		assertTrue(cache.firstSeen(event));
+		Thread.sleep(1_100);
+		assertTrue(cache.firstSeen(event));
+		assertEquals(1, cache.getStats().get("tracked"));
+	}
+
+	@Test
+	void oldestEntriesAreEvictedBeyondTheCap() {
+		EventIdempotencyCache cache = cache(300, 3);
+		for (int i = 1; i <= 4; i++) assertTrue(cache.firstSeen("event-" + i));
+
+		assertEquals(3, cache.getStats().get("tracked"));
+		// The first event fell out, the rest are still remembered
+		assertTrue(cache.firstSeen("event-1"));
+		assertFalse(cache.firstSeen("event-4"));
+	}
+
+	@Test
+	void fingerprintKeepsFieldsApart() {
+		assertNotEquals(EventIdempotencyCache.fingerprint("ab", "c"), EventIdempotencyCache.fingerprint("a", "bc"));
+		assertEquals(EventIdempotencyCache.fingerprint("a", 1), EventIdempotencyCache.fingerprint("a", "1"));
+	}
+
+}
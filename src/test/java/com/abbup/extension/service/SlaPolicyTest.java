@@ -0,0 +1,79 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.abbup.extension.model.ZohoTask;
+
+class SlaPolicyTest {
+
+	private static final long TODAY = 20_000;
+
+	private static SlaPolicy policy(String rules) {
+		SlaPolicy policy = new SlaPolicy();
+		ReflectionTestUtils.setField(policy, "rulesSpec", rules);
+		policy.compile();
+		return policy;
+	}
+
+	private static ZohoTask task(String priority, String owner, long dueInDays) {
+		return new ZohoTask(1, "Task", "Open", priority, (int) (TODAY + dueInDays), owner, 0);
+	}
+
+	@Test
+	void firstRuleWhoseSelectorsMatchDecides() {
+		SlaPolicy policy = policy("priority=High,within=3;within=1");
+
+		assertEquals(0, policy.match(task("High", "Jane", 2), TODAY));
+		assertEquals(SlaPolicy.NO_RULE, policy.match(task("Medium", "Jane", 2), TODAY));
+		assertEquals(1, policy.match(task("Medium", "Jane", 1), TODAY));
+	}
+
+	@Test
+	void laterRulesDoNotWidenAnEarlierMatch() {
+		// High tasks get the tighter window even though the catch-all would accept them
+		SlaPolicy policy = policy("priority=High,within=3;within=10");
+
+		assertEquals(SlaPolicy.NO_RULE, policy.match(task("High", "Jane", 5), TODAY));
+		assertEquals(1, policy.match(task("Low", "Jane", 5), TODAY));
+	}
+
+	@Test
+	void ownerAndPriorityAlternativesMatchIgnoringCase() {
+		SlaPolicy policy = policy("owner=Jane Doe|Sam,priority=high|medium,within=0;within=-2");
+
+		assertEquals(0, policy.match(task("Medium", "sam", 0), TODAY));
+		assertEquals(SlaPolicy.NO_RULE, policy.match(task("Low", "Sam", 0), TODAY));
+		assertEquals(1, policy.match(task("Low", "Sam", -3), TODAY));
+	}
+
+	@Test
+	void closedAndUndatedTasksNeverMatch() {
+		SlaPolicy policy = policy("within=5");
+
+		assertEquals(SlaPolicy.NO_RULE, policy.match(new ZohoTask(1, "Task", "Closed", "High", (int) TODAY, "Jane", 0), TODAY));
+		assertEquals(SlaPolicy.NO_RULE, policy.match(new ZohoTask(1, "Task", "Open", "High", ZohoTask.NO_DUE_DATE, "Jane", 0), TODAY));
+	}
+
+	@Test
+	void escalationOnlyRaisesPriority() {
+		SlaPolicy policy = policy("within=1,escalate=Medium");
+		int rule = policy.match(task("Low", "Jane", 0), TODAY);
+
+		assertEquals("Medium", policy.escalationFor(rule, task("Low", "Jane", 0)));
+		assertNull(policy.escalationFor(rule, task("Medium", "Jane", 0)));
+		assertNull(policy.escalationFor(rule, task("High", "Jane", 0)));
+	}
+
+	@Test
+	void fallsBackToDefaultRuleWhenNothingParses() {
+		SlaPolicy policy = policy("priority=High");
+
+		assertEquals(0, policy.match(task("Low", "Jane", 1), TODAY));
+		assertEquals("High", policy.escalationFor(0, task("Low", "Jane", 1)));
+	}
+
+}
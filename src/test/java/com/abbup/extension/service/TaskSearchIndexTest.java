@@ -0,0 +1,81 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.abbup.extension.model.MonitoredProject;
+import com.abbup.extension.model.ZohoTask;
+
+class TaskSearchIndexTest {
+
+	private static final MonitoredProject PROJECT = new MonitoredProject("1", "2", "Helios Core", 5);
+
+	// Serves whatever the local store holds, without going to Zoho
+	private static class StoreSnapshots extends TaskSnapshotCache {
+		private final ZohoApiService zoho;
+
+		StoreSnapshots(ZohoApiService zoho) {
+			this.zoho = zoho;
+		}
+
+		@Override
+		public TaskSnapshot get(MonitoredProject project) {
+			return zoho.storedSnapshot(project);
+		}
+	}
+
+	private static ZohoTask task(long id, String name, String owner, int dueEpochDay, long lastModified) {
+		return new ZohoTask(id, name, "Open", "Medium", dueEpochDay, owner, lastModified);
+	}
+
+	private static TaskSearchIndex index(ZohoApiService zoho) {
+		TaskSearchIndex index = new TaskSearchIndex();
+		ReflectionTestUtils.setField(index, "zohoApiService", zoho);
+		ReflectionTestUtils.setField(index, "taskSnapshotCache", new StoreSnapshots(zoho));
+		return index;
+	}
+
+	private static List<Long> ids(List<ZohoTask> tasks) {
+		return tasks.stream().map(ZohoTask::id).toList();
+	}
+
+	@Test
+	void everyTermMatchesAsAPrefix() {
+		ZohoApiService zoho = new ZohoApiService();
+		zoho.applyTaskUpdate(PROJECT, task(1, "Deploy payment gateway", "Alice Moreau", 20010, 1));
+		zoho.applyTaskUpdate(PROJECT, task(2, "Payment reconciliation", "Bob Stone", 20005, 1));
+		zoho.applyTaskUpdate(PROJECT, task(3, "Write release docs", "Alice Moreau", 20001, 1));
+		TaskSearchIndex index = index(zoho);
+
+		// Soonest due first
+		assertEquals(List.of(2L, 1L), ids(index.search(PROJECT, "pay", 10)));
+		assertEquals(List.of(1L), ids(index.search(PROJECT, "PAY ali", 10)));
+		assertEquals(List.of(3L, 1L), ids(index.search(PROJECT, "alice", 10)));
+		assertEquals(List.of(3L), ids(index.search(PROJECT, "alice", 1)));
+		assertTrue(index.search(PROJECT, "pay zed", 10).isEmpty());
+		assertTrue(index.search(PROJECT, "  ", 10).isEmpty());
+	}
+
+	@Test
+	void indexCatchesUpWithStoreChanges() {
+		ZohoApiService zoho = new ZohoApiService();
+		zoho.applyTaskUpdate(PROJECT, task(1, "Deploy payment gateway", "Alice Moreau", 20010, 1));
+		zoho.applyTaskUpdate(PROJECT, task(2, "Payment reconciliation", "Bob Stone", 20005, 1));
+		TaskSearchIndex index = index(zoho);
+		assertEquals(List.of(2L, 1L), ids(index.search(PROJECT, "payment", 10)));
+
+		zoho.applyTaskUpdate(PROJECT, task(1, "Deploy billing gateway", "Alice Moreau", 20010, 2));
+		zoho.applyTaskRemoval(PROJECT, 2);
+		zoho.applyTaskUpdate(PROJECT, task(4, "Payment retries", "Chen Wu", 20003, 2));
+
+		assertEquals(List.of(4L), ids(index.search(PROJECT, "payment", 10)));
+		assertEquals(List.of(1L), ids(index.search(PROJECT, "billing", 10)));
+		assertTrue(index.search(PROJECT, "bob", 10).isEmpty());
+	}
+
+}
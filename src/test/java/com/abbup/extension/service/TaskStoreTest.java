@@ -0,0 +1,131 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.abbup.extension.model.ZohoTask;
+
+class TaskStoreTest {
+
+	private static ZohoTask task(long id, String name, long lastModified) {
+		return new ZohoTask(id, name, "Open", "Medium", 20_000, "Jane", lastModified);
+	}
+
+	private static TaskStore storeAt(long watermark) {
+		TaskStore store = new TaskStore();
+		store.replaceAll(List.of(task(1, "Existing", watermark)), store.version());
+		return store;
+	}
+
+	@Test
+	void pagesArrivingOutOfOrderAreAllApplied() {
+		TaskStore store = storeAt(100_000);
+		long since = store.deltaWindowStart();
+
+		// The newer page landed first; the older one must not be filtered against it
+		List<ZohoTask> delta = List.of(task(3, "Later edit", 130_000), task(2, "Earlier edit", 120_000));
+		assertEquals(2, store.upsertChanged(delta, since, true));
+
+		assertEquals("Earlier edit", store.get(2).name());
+		assertEquals("Later edit", store.get(3).name());
+		assertTrue(store.deltaWindowStart() > 100_000);
+	}
+
+	@Test
+	void incompleteDeltaAppliesWhatArrivedButKeepsTheWatermark() {
+		TaskStore store = storeAt(100_000);
+		long since = store.deltaWindowStart();
+
+		assertEquals(1, store.upsertChanged(List.of(task(2, "Edit", 150_000)), since, false));
+
+		assertEquals("Edit", store.get(2).name());
+		assertEquals(since, store.deltaWindowStart());
+	}
+
+	@Test
+	void editInTheWatermarkMillisecondIsKept() {
+		TaskStore store = storeAt(100_000);
+		long since = store.deltaWindowStart();
+
+		assertEquals(1, store.upsertChanged(List.of(task(1, "Renamed", 100_000)), since, true));
+		assertEquals("Renamed", store.get(1).name());
+	}
+
+	@Test
+	void overlapReReadsAreNotChanges() {
+		TaskStore store = storeAt(100_000);
+		long version = store.version();
+
+		assertEquals(0, store.upsertChanged(List.of(task(1, "Existing", 100_000)), store.deltaWindowStart(), true));
+		assertEquals(version, store.version());
+	}
+
+	@Test
+	void tasksOlderThanTheWindowAreSkipped() {
+		TaskStore store = storeAt(100_000);
+
+		assertEquals(0, store.upsertChanged(List.of(task(2, "Stale", 10_000)), store.deltaWindowStart(), true));
+		assertNull(store.get(2));
+	}
+
+	@Test
+	void journalReportsUpsertsAndRemovalsSinceAVersion() {
+		TaskStore store = new TaskStore();
+		store.replaceAll(List.of(task(1, "One", 1_000), task(2, "Two", 1_000)), store.version());
+		long version = store.version();
+
+		store.upsert(task(1, "One v2", 2_000));
+		store.remove(2);
+
+		TaskChanges changes = store.changesSince(version);
+		assertEquals(1, changes.upserted().size());
+		assertEquals("One v2", changes.upserted().get(0).name());
+		assertEquals(List.of(2L), changes.removed());
+		assertEquals(store.version(), changes.version());
+	}
+
+	@Test
+	void olderWebhookFetchDoesNotOverwriteANewerOne() {
+		TaskStore store = storeAt(100_000);
+
+		assertTrue(store.upsert(task(1, "Second edit", 120_000)));
+		assertFalse(store.upsert(task(1, "First edit", 110_000)));
+
+		assertEquals("Second edit", store.get(1).name());
+	}
+
+	@Test
+	void fullSyncKeepsWebhookChangesMadeWhileItRan() {
+		TaskStore store = new TaskStore();
+		store.replaceAll(List.of(task(1, "One", 1_000), task(2, "Two", 1_000)), store.version());
+		long startedAt = store.version();
+
+		// Events land while the full sync's pages are still being fetched
+		store.upsert(task(1, "One v2", 2_000));
+		store.upsert(task(3, "Created", 2_000));
+		store.remove(2);
+		store.replaceAll(List.of(task(1, "One", 1_000), task(2, "Two", 1_000)), startedAt);
+
+		assertEquals("One v2", store.get(1).name());
+		assertEquals("Created", store.get(3).name());
+		assertNull(store.get(2));
+	}
+
+	@Test
+	void laterFullSyncStillRemovesWhatZohoNoLongerHas() {
+		TaskStore store = new TaskStore();
+		store.replaceAll(List.of(task(1, "One", 1_000)), store.version());
+		store.upsert(task(2, "Created", 2_000));
+
+		store.replaceAll(List.of(task(1, "One", 1_000)), store.version());
+
+		assertNull(store.get(2));
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.abbup.extension.service.ZohoRateLimiter.Priority;
+
+class ZohoRateLimiterTest {
+
+	// No refill, so every token spent stays spent for the length of a test
+	private static ZohoRateLimiter limiter(int capacity, long maxWaitMillis) {
+		ZohoRateLimiter limiter = new ZohoRateLimiter();
+		ReflectionTestUtils.setField(limiter, "capacity", capacity);
+		ReflectionTestUtils.setField(limiter, "refillPerMinute", 0.0);
+		ReflectionTestUtils.setField(limiter, "interactiveReserve", 0.2);
+		ReflectionTestUtils.setField(limiter, "maxWaitMillis", maxWaitMillis);
+		ReflectionTestUtils.setField(limiter, "defaultBackoffSeconds", 60L);
+		limiter.init();
+		return limiter;
+	}
+
+	private static HttpClientErrorException tooManyRequests(String retryAfter) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+		return new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void backgroundWorkStopsAtTheInteractiveReserve() {
+		ZohoRateLimiter limiter = limiter(10, 0);
+
+		int background = 0;
+		while (limiter.acquire(Priority.BACKGROUND)) background++;
+		assertEquals(8, background);
+
+		// The reserved fifth is still there for commands
+		assertTrue(limiter.acquire(Priority.INTERACTIVE));
+		assertTrue(limiter.acquire(Priority.INTERACTIVE));
+		assertFalse(limiter.acquire(Priority.INTERACTIVE));
+	}
+
+	@Test
+	void retryAfterPausesEveryCaller() {
+		ZohoRateLimiter limiter = limiter(10, 30_000);
+
+		limiter.onThrottled(tooManyRequests("120"));
+
+		long paused = limiter.pausedForMillis();
+		assertTrue(paused > 110_000 && paused <= 120_000, "paused for " + paused);
+		// A pause longer than max-wait fails at once instead of blocking for the full wait
+		long start = System.currentTimeMillis();
+		assertFalse(limiter.acquire(Priority.INTERACTIVE));
+		assertTrue(System.currentTimeMillis() - start < 1_000);
+	}
+
+	@Test
+	void callReportsHowLongTheBudgetIsPaused() {
+		ZohoRateLimiter limiter = limiter(10, 30_000);
+		limiter.onThrottled(tooManyRequests("90"));
+
+		ZohoBudgetExhaustedException e = assertThrows(ZohoBudgetExhaustedException.class,
+				() -> limiter.call(Priority.INTERACTIVE, 1, () -> "never sent"));
+		assertTrue(e.getRetryAfterMillis() > 80_000 && e.getRetryAfterMillis() <= 90_000);
+	}
+
+	@Test
+	void throttledCallIsRetriedOnceThePauseEnds() {
+		ZohoRateLimiter limiter = limiter(10, 5_000);
+		// The throttle empties the bucket, so let it refill quickly
+		ReflectionTestUtils.setField(limiter, "refillPerMinute", 600_000.0);
+		int[] attempts = { 0 };
+
+		String result = limiter.call(Priority.BACKGROUND, 1, () -> {
+			if (attempts[0]++ == 0) throw tooManyRequests("0");
+			return "ok";
+		});
+
+		assertEquals("ok", result);
+		assertEquals(2, attempts[0]);
+		assertEquals(1L, limiter.getStats().get("throttled"));
+	}
+
+}
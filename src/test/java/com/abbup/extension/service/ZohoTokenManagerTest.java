@@ -0,0 +1,87 @@
+package com.abbup.extension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+class ZohoTokenManagerTest {
+
+	// Stands in for Zoho's token endpoint: counts POSTs and takes a while to answer
+	private static class TokenEndpoint extends RestTemplate {
+		final AtomicInteger posts = new AtomicInteger();
+
+		@Override
+		public <T> T postForObject(String url, Object request, Class<T> responseType, Object... uriVariables) {
+			int issued = posts.incrementAndGet();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return responseType.cast(Map.of("access_token", "token-" + issued, "expires_in", "3600"));
+		}
+	}
+
+	private static ZohoTokenManager manager(RestTemplate endpoint) {
+		ZohoTokenManager manager = new ZohoTokenManager();
+		ReflectionTestUtils.setField(manager, "restTemplate", endpoint);
+		ReflectionTestUtils.setField(manager, "refreshAheadSeconds", 300L);
+		ReflectionTestUtils.setField(manager, "retrySeconds", 30L);
+		return manager;
+	}
+
+	private static List<String> concurrently(int callers, Callable<String> call) throws Exception {
+		List<Future<String>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < callers; i++) futures.add(executor.submit(call));
+		}
+		List<String> results = new ArrayList<>();
+		for (Future<String> future : futures) results.add(future.get());
+		return results;
+	}
+
+	@Test
+	void coldStartCallersShareOneRefresh() throws Exception {
+		TokenEndpoint endpoint = new TokenEndpoint();
+		ZohoTokenManager manager = manager(endpoint);
+
+		for (String token : concurrently(16, manager::getAccessToken)) assertEquals("token-1", token);
+		assertEquals(1, endpoint.posts.get());
+	}
+
+	@Test
+	void concurrentRejectionsOfOneTokenRefreshOnce() throws Exception {
+		TokenEndpoint endpoint = new TokenEndpoint();
+		ZohoTokenManager manager = manager(endpoint);
+		String rejected = manager.getAccessToken();
+
+		for (String token : concurrently(16, () -> manager.invalidate(rejected))) assertEquals("token-2", token);
+		assertEquals(2, endpoint.posts.get());
+
+		// A late 401 for the old token just picks up the replacement
+		assertEquals("token-2", manager.invalidate(rejected));
+		assertEquals(2, endpoint.posts.get());
+	}
+
+	@Test
+	void cachedTokenIsServedWithoutAPost() {
+		TokenEndpoint endpoint = new TokenEndpoint();
+		ZohoTokenManager manager = manager(endpoint);
+
+		assertEquals("token-1", manager.getAccessToken());
+		assertEquals("token-1", manager.getAccessToken());
+		assertEquals(1, endpoint.posts.get());
+	}
+
+}